@@ -0,0 +1,69 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Board} construction, mine placement, hint calculation and rendering.
+ * Runs entirely offline; no Discord token is required. Boards are built from fixed seeds, so every run
+ * measures the same mine layouts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"0.0", "0.15", "0.3"})
+    public double density;
+
+    private Board board;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        seed = 42;
+        board = new Board(size, size, density, seed);
+        board.placeMines();
+        // cell tiles are only allocated once touched, and calculateHints skips the rest; touch every cell so
+        // it recomputes the hints of the whole board
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                board.flagCell(row, col, true);
+                board.flagCell(row, col, false);
+            }
+        }
+    }
+
+    @Benchmark
+    public Board construct() {
+        return new Board(size, size, density);
+    }
+
+    @Benchmark
+    public void placeMines(Blackhole bh) {
+        Board fresh = new Board(size, size, density, seed++);
+        fresh.placeMines(size / 2, size / 2);
+        bh.consume(fresh);
+    }
+
+    @Benchmark
+    public void calculateHints() {
+        board.calculateHints();
+    }
+
+    @Benchmark
+    public String buildBoardString() {
+        return board.buildBoardString();
+    }
+}
@@ -0,0 +1,207 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import com.chalwk.util.GameConfig;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+/**
+ * Hammers a {@link GameManager} from many threads with the start / reveal / stop cycle the slash commands
+ * perform: games are created and registered under {@link GameManager#lockFor}, moves and stops are posted
+ * to each game's mailbox and check {@link Game#isActive()} there, and a game that ends removes itself
+ * through {@link Game#endGame}, cancelling its timeout. Moves are journaled to a temporary directory.
+ * <p>
+ * Games are built with the constructor snapshots are restored through, which needs no Discord event; the
+ * command classes themselves, and the replies they send, are not driven here. Any of these counts as a
+ * violation and fails the iteration when it ends:
+ * <ul>
+ *     <li>two tasks of one game running at the same time;</li>
+ *     <li>a player who was not in a game under the lock failing to register one;</li>
+ *     <li>a game still active after it ended on its mailbox;</li>
+ *     <li>a posted task that never ran, or a timer left pending for a game that is no longer registered.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class GameRegistryStress {
+
+    private static final int SIZE = 10;
+    private static final int MINES = 10;
+    private static final long DRAIN_SECONDS = 30;
+
+    @Param({"16", "4096"})
+    public int players;
+
+    private Path directory;
+    private GameManager gameManager;
+    private Map<Game, AtomicBoolean> inUse;
+    private Queue<Game> created;
+    private LongAdder posted;
+    private LongAdder ran;
+    private AtomicInteger violations;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("minesweeper-stress");
+        System.setProperty("minesweeper.journalDir", directory.resolve("journal").toString());
+        System.setProperty("minesweeper.channelConfig", directory.resolve("channels.txt").toString());
+        gameManager = new GameManager();
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        inUse = new ConcurrentHashMap<>();
+        created = new ConcurrentLinkedQueue<>();
+        posted = new LongAdder();
+        ran = new LongAdder();
+        violations = new AtomicInteger();
+    }
+
+    @TearDown(Level.Iteration)
+    public void check() throws InterruptedException {
+        drain();
+        int registered = gameManager.getGames().size();
+        int timers = gameManager.getScheduler().getPendingTimers();
+        if (posted.sum() != ran.sum()) {
+            violations.incrementAndGet();
+        }
+        if (timers != registered) {
+            violations.incrementAndGet();
+        }
+        for (Game game : gameManager.getGames().values()) {
+            game.post(() -> game.endGame(UserSnowflake.fromId(game.getPlayerID())));
+        }
+        drain();
+        if (violations.get() != 0) {
+            throw new IllegalStateException(violations.get() + " violations (" + posted.sum() + " tasks posted, "
+                    + ran.sum() + " ran; " + registered + " games registered, " + timers + " timers pending)");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        gameManager.getScheduler().shutdown();
+        if (gameManager.getJournal() != null) {
+            gameManager.getJournal().close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Waits until every game created this iteration has run everything posted to it so far.
+     */
+    private void drain() throws InterruptedException {
+        CountDownLatch drained = new CountDownLatch(created.size());
+        for (Game game : created) {
+            game.post(drained::countDown);
+        }
+        if (!drained.await(DRAIN_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Game mailboxes did not drain");
+        }
+    }
+
+    @Benchmark
+    public int play() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UserSnowflake player = UserSnowflake.fromId(random.nextInt(players));
+        Game game = gameManager.getGame(player);
+        if (game == null) {
+            start(player, random.nextLong());
+            return 0;
+        }
+        if (random.nextInt(64) == 0) {
+            post(game, () -> {
+                game.endGame(player);
+                if (game.isActive()) {
+                    violations.incrementAndGet();
+                }
+            });
+        } else {
+            int row = random.nextInt(SIZE);
+            int col = random.nextInt(SIZE);
+            post(game, () -> {
+                game.board.revealCell(row, col);
+                if (game.board.getState() != BoardState.ONGOING) {
+                    game.endGame(player);
+                }
+            });
+        }
+        return 1;
+    }
+
+    private void start(UserSnowflake player, long seed) {
+        Lock lock = gameManager.lockFor(player);
+        lock.lock();
+        try {
+            if (gameManager.isInGame(player) || gameManager.isDealing(player)) {
+                return;
+            }
+            GameConfig config = new GameConfig(player, SIZE, SIZE, MINES, false, false);
+            Game game = new Game(gameManager.nextGameID(), config, gameManager, Board.withMines(SIZE, SIZE, MINES, seed),
+                    0, System.currentTimeMillis(), 0, "");
+            inUse.put(game, new AtomicBoolean());
+            created.add(game);
+            if (!gameManager.restoreGame(game)) {
+                violations.incrementAndGet();
+                return;
+            }
+            game.resume();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Posts a command's work the way the commands do, skipping it once the game is no longer registered.
+     */
+    private void post(Game game, Runnable work) {
+        AtomicBoolean running = inUse.get(game);
+        posted.increment();
+        game.post(() -> {
+            ran.increment();
+            if (!running.compareAndSet(false, true)) {
+                violations.incrementAndGet();
+                return;
+            }
+            try {
+                if (!game.isActive()) {
+                    return;
+                }
+                work.run();
+                if (game.board.getState() != BoardState.ONGOING && game.isActive()) {
+                    violations.incrementAndGet();
+                }
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a render after a one-cell change against a render with every row re-encoded.
+ * The largest size matches the default {@code minesweeper.maxCells} limit of 4,000,000 cells.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    @Param({"10", "100", "2000"})
+    public int size;
+
+    private Board board;
+    private boolean flagged;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = new Board(size, size, 0.15);
+        board.revealCell(size / 2, size / 2);
+        board.buildBoardString();
+    }
+
+    @Benchmark
+    public String oneCellChange() {
+        flagged = !flagged;
+        board.flagCell(0, 0, flagged);
+        return board.buildBoardString();
+    }
+
+    @Benchmark
+    public String fullRender() {
+        board.invalidateRenderCache();
+        return board.buildBoardString();
+    }
+}
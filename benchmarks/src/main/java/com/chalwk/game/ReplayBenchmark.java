@@ -0,0 +1,81 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks rebuilding games from a {@link MoveJournal}. The setup records a corpus of random games
+ * into a temporary journal; pass {@code -p journal=/path/to/journal} to replay real games instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReplayBenchmark {
+
+    @Param({"10000"})
+    public int games;
+
+    @Param({"20"})
+    public int movesPerGame;
+
+    @Param({""})
+    public String journal;
+
+    private Path directory;
+    private boolean generated;
+
+    @Setup
+    public void record() throws IOException {
+        if (!journal.isEmpty()) {
+            directory = Path.of(journal);
+            return;
+        }
+        directory = Files.createTempDirectory("minesweeper-journal");
+        generated = true;
+        Random random = new Random(42);
+        try (MoveJournal writer = new MoveJournal(directory, 16 << 20)) {
+            for (long id = 1; id <= games; id++) {
+                Board board = new Board(10, 10, 0.15, random.nextLong());
+                writer.appendStart(id, id, board);
+                board.setJournal(writer, id);
+                for (int m = 0; m < movesPerGame && board.getState() == BoardState.ONGOING; m++) {
+                    if (random.nextInt(4) == 0) {
+                        board.flagCell(random.nextInt(10), random.nextInt(10), true);
+                    } else {
+                        board.revealCell(random.nextInt(10), random.nextInt(10));
+                    }
+                }
+                writer.appendEnd(id);
+            }
+        }
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        if (!generated) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Board> reconstruct() throws IOException {
+        return MoveJournal.reconstruct(directory);
+    }
+}
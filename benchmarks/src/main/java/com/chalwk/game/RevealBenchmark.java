@@ -0,0 +1,52 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single {@link Board#revealCell(int, int)} on a zero-hint cell of a freshly built board.
+ * With a density of {@code 0.0} this is the worst case: one click opens the entire board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RevealBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"0.0", "0.15"})
+    public double density;
+
+    private Board board;
+    private int row;
+    private int col;
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        board = new Board(size, size, density);
+        board.placeMines();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (!board.isMine(i, j) && board.getHint(i, j) == 0) {
+                    row = i;
+                    col = j;
+                    return;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public BoardState revealCascade() {
+        board.revealCell(row, col);
+        return board.getState();
+    }
+}
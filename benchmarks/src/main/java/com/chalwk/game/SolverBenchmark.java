@@ -0,0 +1,98 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import com.chalwk.game.solver.Deduction;
+import com.chalwk.game.solver.NoGuessGenerator;
+import com.chalwk.game.solver.Solver;
+import com.chalwk.game.solver.SolverResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the deduction solver: a {@code /hint} on a game some way in, and the search for a board that
+ * needs no guessing. The hint board is opened at its centre and then played for a few rounds of deduced
+ * moves, so the frontier is long and ragged like a real game's rather than a single opening.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(10);
+
+    @Param({"16", "100", "1000"})
+    public int size;
+
+    @Param({"0.15"})
+    public double density;
+
+    @Param({"4"})
+    public int rounds;
+
+    private Board board;
+    private Solver solver;
+
+    @Setup
+    public void play() {
+        board = Board.withMines(size, size, (int) (size * size * density), 42);
+        board.revealCell(size / 2, size / 2);
+        solver = new Solver(BUDGET);
+        int[] safe = new int[size * size];
+        for (int round = 0; round < rounds && board.getState() == BoardState.ONGOING; round++) {
+            SolverResult result = solver.solve(board, true);
+            int n = 0;
+            for (Deduction deduction : result.getDeductions()) {
+                if (deduction.mine) {
+                    board.flagCell(deduction.row, deduction.col, true);
+                } else {
+                    safe[n++] = deduction.row * size + deduction.col;
+                }
+            }
+            if (n == 0) {
+                break;
+            }
+            board.revealCells(safe, n);
+        }
+    }
+
+    @Benchmark
+    public Deduction hint() {
+        return solver.solve(board, false).getHint();
+    }
+
+    @Benchmark
+    public Board generateNoGuess(Layout layout) {
+        return NoGuessGenerator.generate(layout.rows, layout.cols, layout.mines, layout.rows / 2, layout.cols / 2,
+                layout.seed++, BUDGET);
+    }
+
+    /**
+     * The board generated no-guess, as {@code rows:cols:mines}; the classic beginner, intermediate and
+     * expert layouts by default.
+     */
+    @State(Scope.Thread)
+    public static class Layout {
+
+        @Param({"9:9:10", "16:16:40", "16:30:99"})
+        public String layout;
+
+        int rows;
+        int cols;
+        int mines;
+        long seed;
+
+        @Setup
+        public void parse() {
+            String[] parts = layout.split(":");
+            rows = Integer.parseInt(parts[0]);
+            cols = Integer.parseInt(parts[1]);
+            mines = Integer.parseInt(parts[2]);
+        }
+    }
+}
@@ -5,14 +5,20 @@ package com.chalwk.CommandManager;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Manages command cooldowns by storing and checking command usage timestamps for each user and command.
+ * Manages command cooldowns by storing the last time each user ran each command.
+ * <p>
+ * A single instance is shared by every command. Entries are keyed by the user's ID and a small ordinal
+ * assigned to each command name, and hold {@link System#nanoTime()} stamps in primitive arrays split
+ * across independently locked segments, so checking a cooldown allocates nothing. Entries whose cooldown
+ * has run out are swept from a segment at most once per cooldown period, which keeps memory proportional
+ * to the number of users active in the last few seconds.
  */
 public class CommandCooldownManager {
 
@@ -21,20 +27,60 @@ public class CommandCooldownManager {
      */
     private static final long COOLDOWN_DURATION_SECONDS = 5;
 
+    private static final long COOLDOWN_DURATION_NANOS = TimeUnit.SECONDS.toNanos(COOLDOWN_DURATION_SECONDS);
+
+    private static final int SEGMENTS = 16;
+
+    private static final CommandCooldownManager INSTANCE = new CommandCooldownManager();
+
     /**
-     * A map containing user IDs as keys and another map for each user with command names as keys and timestamps as values.
+     * Command names mapped to the ordinals used in the cooldown keys.
      */
-    private final ConcurrentMap<String, Map<String, Instant>> commandUserCooldowns = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> commandOrdinals = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private CommandCooldownManager() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the cooldown manager shared by all commands.
+     */
+    public static CommandCooldownManager getInstance() {
+        return INSTANCE;
+    }
+
+    private static long hash(long userId, int command) {
+        long h = (userId ^ ((long) command << 56)) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private int ordinal(String commandName) {
+        Integer ordinal = commandOrdinals.get(commandName);
+        if (ordinal == null) {
+            ordinal = commandOrdinals.computeIfAbsent(commandName, name -> nextOrdinal.getAndIncrement());
+        }
+        return ordinal;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
 
     /**
      * Checks if a specific command is on cooldown for the given user.
      *
      * @param commandName the name of the command to check
      * @param user        the user executing the command
-     * @return true if the command is not on cooldown, false otherwise
+     * @return true if the command is on cooldown, false otherwise
      */
     public boolean isOnCooldown(String commandName, User user) {
-        return !checkCooldown(commandName, user);
+        return remainingNanos(commandName, user.getIdLong(), System.nanoTime()) > 0;
     }
 
     /**
@@ -44,69 +90,37 @@ public class CommandCooldownManager {
      * @param user        the user executing the command
      */
     public void setCooldown(String commandName, User user) {
-        Map<String, Instant> userCommandCooldowns = commandUserCooldowns.computeIfAbsent(user.getId(), k -> new ConcurrentHashMap<>());
-        userCommandCooldowns.put(commandName, Instant.now());
-    }
-
-    /**
-     * Checks if the given command is on cooldown for the specified user by comparing their last execution timestamp with
-     * the current time.
-     *
-     * @param commandName the name of the command to check
-     * @param user        the user executing the command
-     * @return true if the command is on cooldown, false otherwise
-     */
-    private boolean checkCooldown(String commandName, User user) {
-        Map<String, Instant> userCommandCooldowns = commandUserCooldowns.get(user.getId());
-        if (userCommandCooldowns == null) {
-            return false;
-        }
-
-        Instant lastExecutionTime = userCommandCooldowns.get(commandName);
-        if (lastExecutionTime == null) {
-            return false;
-        }
-
-        long elapsedTime = Duration.between(lastExecutionTime, Instant.now()).getSeconds();
-        return elapsedTime >= getCooldownDuration();
+        long userId = user.getIdLong();
+        int command = ordinal(commandName);
+        long hash = hash(userId, command);
+        segmentFor(hash).put(hash, userId, command, System.nanoTime());
     }
 
-    /**
-     * Handles a cooldown error by sending a message to the user and setting the command on cooldown.
-     *
-     * @param event the event containing the command and user
-     */
-    public void handleCooldownError(SlashCommandInteractionEvent event) {
-        String commandName = event.getName();
-        User user = event.getUser();
-        Map<String, Instant> userCommandCooldowns = commandUserCooldowns.get(user.getId());
-        Instant lastExecutionTime = userCommandCooldowns.get(commandName);
-        long elapsedTime = Duration.between(lastExecutionTime, Instant.now()).getSeconds();
-        long remainingTime = getCooldownDuration() - elapsedTime;
-        if (remainingTime > 0) {
-            event.reply(String.format("Cooldown in progress. Please wait %d seconds before using the command again.", remainingTime))
-                    .setEphemeral(true).queue();
+    private long remainingNanos(String commandName, long userId, long now) {
+        int command = ordinal(commandName);
+        long hash = hash(userId, command);
+        long lastExecutionTime = segmentFor(hash).get(hash, userId, command);
+        if (lastExecutionTime == Segment.EMPTY) {
+            return 0;
         }
+        return COOLDOWN_DURATION_NANOS - (now - lastExecutionTime);
     }
 
     /**
-     * Checks if a command is on cooldown for the given user and handles cooldown errors if necessary.
+     * Checks if a command is on cooldown for the given user and, if so, tells the user how long to wait.
      *
      * @param event the event containing the command and user
      * @return true if the command is on cooldown and an error has been handled, false otherwise
      */
     public boolean isOnCooldown(SlashCommandInteractionEvent event) {
-        String commandName = event.getName();
-        User user = event.getUser();
-        Map<String, Instant> userCommandCooldowns = commandUserCooldowns.get(user.getId());
-        if (userCommandCooldowns == null || !userCommandCooldowns.containsKey(commandName)) {
+        long remaining = remainingNanos(event.getName(), event.getUser().getIdLong(), System.nanoTime());
+        if (remaining <= 0) {
             return false;
         }
-        if (isOnCooldown(commandName, user)) {
-            handleCooldownError(event);
-            return true;
-        }
-        return false;
+        long seconds = (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        event.reply(String.format("Cooldown in progress. Please wait %d seconds before using the command again.", seconds))
+                .setEphemeral(true).queue();
+        return true;
     }
 
     /**
@@ -117,4 +131,111 @@ public class CommandCooldownManager {
     public long getCooldownDuration() {
         return COOLDOWN_DURATION_SECONDS;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the number of cooldown entries currently held, including expired ones not yet swept.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * An open-addressing table of (user, command) to timestamp, guarded by its own monitor.
+     */
+    private static final class Segment {
+
+        static final long EMPTY = Long.MIN_VALUE;
+        private static final int INITIAL_CAPACITY = 64;
+
+        private long[] users = new long[INITIAL_CAPACITY];
+        private int[] commands = new int[INITIAL_CAPACITY];
+        private long[] stamps = newStamps(INITIAL_CAPACITY);
+        private int size;
+        private long lastSweep = System.nanoTime();
+
+        private static long[] newStamps(int capacity) {
+            long[] stamps = new long[capacity];
+            Arrays.fill(stamps, EMPTY);
+            return stamps;
+        }
+
+        synchronized long get(long hash, long userId, int command) {
+            int mask = stamps.length - 1;
+            for (int slot = (int) hash & mask; stamps[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (users[slot] == userId && commands[slot] == command) {
+                    return stamps[slot];
+                }
+            }
+            return EMPTY;
+        }
+
+        synchronized void put(long hash, long userId, int command, long now) {
+            if (now - lastSweep >= COOLDOWN_DURATION_NANOS) {
+                lastSweep = now;
+                rebuild(stamps.length, now);
+            }
+            if ((size + 1) * 2 > stamps.length) {
+                rebuild(stamps.length * 2, now);
+            }
+            insert(hash, userId, command, now);
+        }
+
+        private void insert(long hash, long userId, int command, long stamp) {
+            int mask = stamps.length - 1;
+            int slot = (int) hash & mask;
+            while (stamps[slot] != EMPTY) {
+                if (users[slot] == userId && commands[slot] == command) {
+                    stamps[slot] = stamp;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            users[slot] = userId;
+            commands[slot] = command;
+            stamps[slot] = stamp;
+            size++;
+        }
+
+        /**
+         * Re-inserts the entries still cooling down into tables of the given capacity, dropping the rest.
+         * Shrinks back towards the initial capacity when most entries have expired.
+         */
+        private void rebuild(int capacity, long now) {
+            long[] oldUsers = users;
+            int[] oldCommands = commands;
+            long[] oldStamps = stamps;
+
+            int live = 0;
+            for (long stamp : oldStamps) {
+                if (stamp != EMPTY && now - stamp < COOLDOWN_DURATION_NANOS) {
+                    live++;
+                }
+            }
+            if (live == size && capacity == oldStamps.length) {
+                return;
+            }
+            while (capacity > INITIAL_CAPACITY && (live + 1) * 8 < capacity) {
+                capacity >>>= 1;
+            }
+            while ((live + 1) * 2 > capacity) {
+                capacity <<= 1;
+            }
+
+            users = new long[capacity];
+            commands = new int[capacity];
+            stamps = newStamps(capacity);
+            size = 0;
+            for (int i = 0; i < oldStamps.length; i++) {
+                if (oldStamps[i] != EMPTY && now - oldStamps[i] < COOLDOWN_DURATION_NANOS) {
+                    insert(hash(oldUsers[i], oldCommands[i]), oldUsers[i], oldCommands[i], oldStamps[i]);
+                }
+            }
+        }
+    }
+}
@@ -2,19 +2,29 @@
    See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
 package com.chalwk.CommandManager;
 
+import com.chalwk.util.Logging.Logger;
+import com.chalwk.util.settings;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A listener class for registering and handling commands in the Virtual Pets game project.
  * It extends JDA's ListenerAdapter class and overrides its methods to manage command execution.
+ * <p>
+ * Commands are dispatched through an immutable map keyed by the full command name (so subcommands such as
+ * {@code "game start"} can be registered directly), and button clicks through a map keyed by the
+ * component ID prefix. Both maps are rebuilt whenever a handler is added, which only happens at startup.
+ * Each dispatch is counted in the handler's {@link CommandStats}, including the work it posts to a game.
  */
 public class CommandListener extends ListenerAdapter {
 
@@ -23,17 +33,28 @@ public class CommandListener extends ListenerAdapter {
      */
     private final List<CommandInterface> commands = new ArrayList<>();
 
+    private volatile Map<String, CommandInterface> commandsByName = Map.of();
+    private volatile Map<String, ComponentHandler> componentsByPrefix = Map.of();
+    private volatile Map<String, CommandStats> stats = Map.of();
+
     /**
-     * Registers all available commands in all guilds upon JDA's ready event.
+     * Registers all available commands upon JDA's ready event, either globally (from the first shard only)
+     * or in every guild of this shard, depending on {@link settings#getCommandScope()}.
      *
      * @param event The ReadyEvent object containing JDA's initialization details.
      */
     @Override
     public void onReady(@NotNull ReadyEvent event) {
-        for (Guild guild : event.getJDA().getGuilds()) {
-            for (CommandInterface command : commands) {
-                guild.upsertCommand(command.getName(), command.getDescription()).addOptions(command.getOptions()).queue();
+        JDA jda = event.getJDA();
+        CommandRegistrar registrar = new CommandRegistrar(List.copyOf(commands));
+        if (settings.getCommandScope() == CommandRegistrar.Scope.GLOBAL) {
+            if (jda.getShardInfo().getShardId() == 0) {
+                registrar.registerGlobal(jda);
             }
+            return;
+        }
+        for (Guild guild : jda.getGuilds()) {
+            registrar.registerGuild(guild);
         }
     }
 
@@ -44,17 +65,57 @@ public class CommandListener extends ListenerAdapter {
      */
     @Override
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
-        for (CommandInterface command : commands) {
-            String cmd = event.getName();
-            if (cmd.equals(command.getName())) {
-                try {
-                    command.execute(event);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
+        String name = event.getFullCommandName();
+        CommandInterface command = commandsByName.get(name);
+        if (command == null) {
+            name = event.getName();
+            command = commandsByName.get(name);
+            if (command == null) {
                 return;
             }
         }
+
+        CommandStats.Invocation invocation = stats.get(name).begin();
+        try {
+            command.execute(event);
+        } catch (Exception e) {
+            invocation.fail();
+            Logger.warning("Command /" + name + " failed: " + e);
+            if (!event.isAcknowledged()) {
+                event.reply("## Something went wrong. Please try again.").setEphemeral(true).queue();
+            }
+        } finally {
+            invocation.end();
+        }
+    }
+
+    /**
+     * Routes a button click to the component handler that owns its ID prefix.
+     *
+     * @param event The ButtonInteractionEvent object containing event details.
+     */
+    @Override
+    public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
+        String id = event.getComponentId();
+        int separator = id.indexOf(':');
+        String prefix = separator < 0 ? id : id.substring(0, separator);
+        ComponentHandler handler = componentsByPrefix.get(prefix);
+        if (handler == null) {
+            return;
+        }
+
+        CommandStats.Invocation invocation = stats.get(prefix + ":").begin();
+        try {
+            handler.handle(event);
+        } catch (Exception e) {
+            invocation.fail();
+            Logger.warning("Component " + prefix + " failed: " + e);
+            if (!event.isAcknowledged()) {
+                event.reply("## Something went wrong. Please try again.").setEphemeral(true).queue();
+            }
+        } finally {
+            invocation.end();
+        }
     }
 
     /**
@@ -62,7 +123,38 @@ public class CommandListener extends ListenerAdapter {
      *
      * @param command The CommandInterface instance representing the new command.
      */
-    public void add(CommandInterface command) {
+    public synchronized void add(CommandInterface command) {
         commands.add(command);
+        Map<String, CommandInterface> byName = new HashMap<>(commandsByName);
+        byName.put(command.getName(), command);
+        commandsByName = Map.copyOf(byName);
+        addStats(command.getName());
+    }
+
+    /**
+     * Adds a handler for button clicks whose component ID starts with the handler's prefix.
+     *
+     * @param handler The ComponentHandler instance to route clicks to.
+     */
+    public synchronized void add(ComponentHandler handler) {
+        Map<String, ComponentHandler> byPrefix = new HashMap<>(componentsByPrefix);
+        byPrefix.put(handler.getPrefix(), handler);
+        componentsByPrefix = Map.copyOf(byPrefix);
+        addStats(handler.getPrefix() + ":");
+    }
+
+    private void addStats(String key) {
+        Map<String, CommandStats> updated = new HashMap<>(stats);
+        updated.putIfAbsent(key, new CommandStats());
+        stats = Map.copyOf(updated);
+    }
+
+    /**
+     * Returns the counters keyed by command name; component handlers appear as {@code "prefix:"}.
+     *
+     * @return An unmodifiable map of counters.
+     */
+    public Map<String, CommandStats> getStats() {
+        return stats;
     }
-}
\ No newline at end of file
+}
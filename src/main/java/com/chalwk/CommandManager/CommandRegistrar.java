@@ -0,0 +1,106 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.CommandManager;
+
+import com.chalwk.util.Logging.Logger;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the bot's slash commands with one bulk update per scope instead of one upsert per command.
+ * <p>
+ * The registered commands are fetched first and compared with the local definitions by name,
+ * description and options; when nothing changed no update is sent at all. In {@link Scope#GLOBAL} mode
+ * this costs one or two REST calls for the whole bot, in {@link Scope#GUILD} mode one or two per guild.
+ */
+public class CommandRegistrar {
+
+    private final List<CommandInterface> commands;
+
+    public CommandRegistrar(List<CommandInterface> commands) {
+        this.commands = commands;
+    }
+
+    private static String fingerprint(SlashCommandData command) {
+        StringBuilder sb = new StringBuilder(command.getName()).append('\u0000').append(command.getDescription());
+        for (OptionData option : command.getOptions()) {
+            sb.append('\u0001').append(option.getType()).append('\u0000').append(option.getName())
+                    .append('\u0000').append(option.getDescription()).append('\u0000').append(option.isRequired());
+            for (Command.Choice choice : option.getChoices()) {
+                sb.append('\u0002').append(choice.getName()).append('\u0000').append(choice.getAsString());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Registers the commands globally. Only needs to run once per bot, not once per shard.
+     *
+     * @param jda any shard of the bot
+     */
+    public void registerGlobal(JDA jda) {
+        sync("global", jda.retrieveCommands(), jda::updateCommands);
+    }
+
+    /**
+     * Registers the commands in one guild.
+     *
+     * @param guild the guild to register in
+     */
+    public void registerGuild(Guild guild) {
+        sync("guild " + guild.getId(), guild.retrieveCommands(), guild::updateCommands);
+    }
+
+    private void sync(String scope, RestAction<List<Command>> existing, Supplier<CommandListUpdateAction> update) {
+        List<CommandData> wanted = new ArrayList<>(commands.size());
+        Set<String> wantedPrints = new TreeSet<>();
+        for (CommandInterface command : commands) {
+            SlashCommandData data = Commands.slash(command.getName(), command.getDescription()).addOptions(command.getOptions());
+            wanted.add(data);
+            wantedPrints.add(fingerprint(data));
+        }
+
+        existing.queue(registered -> {
+            Set<String> registeredPrints = new TreeSet<>();
+            for (Command command : registered) {
+                if (command.getType() == Command.Type.SLASH) {
+                    registeredPrints.add(fingerprint(SlashCommandData.fromCommand(command)));
+                }
+            }
+            if (registeredPrints.equals(wantedPrints) && registeredPrints.size() == registered.size()) {
+                Logger.info("Commands up to date (" + scope + ")");
+                return;
+            }
+            update.get().addCommands(wanted).queue(
+                    done -> Logger.info("Registered " + done.size() + " commands (" + scope + ")"),
+                    error -> Logger.warning("Failed to register commands (" + scope + "): " + error.getMessage()));
+        }, error -> Logger.warning("Failed to fetch commands (" + scope + "): " + error.getMessage()));
+    }
+
+    /**
+     * Where commands are registered.
+     */
+    public enum Scope {
+        /**
+         * Registered once for the whole application; visible in every guild.
+         */
+        GLOBAL,
+        /**
+         * Registered separately in each guild; changes show up immediately.
+         */
+        GUILD
+    }
+}
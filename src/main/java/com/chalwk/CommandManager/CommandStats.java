@@ -0,0 +1,126 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.CommandManager;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a single command or component handler: invocations, failures and the time each invocation
+ * took to finish.
+ * <p>
+ * Most handlers only check their input on the gateway thread and hand the real work to the game's mailbox.
+ * While a handler runs, its invocation is the current one for the dispatching thread; the first task it
+ * passes through {@link #track(Runnable)} carries the invocation with it, and the time is taken when that
+ * task finishes on the mailbox. Failures are counted wherever they happen, so a task that throws on the
+ * mailbox counts as an error of the command that posted it.
+ */
+public class CommandStats {
+
+    private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Wraps a task so that it finishes the invocation the calling thread is dispatching, if any. Tasks
+     * posted outside a handler, and any after the first from the same handler, are returned unchanged.
+     *
+     * @param task the task about to be queued
+     * @return the task to queue instead
+     */
+    public static Runnable track(Runnable task) {
+        Invocation invocation = CURRENT.get();
+        if (invocation == null || invocation.deferred) {
+            return task;
+        }
+        invocation.deferred = true;
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                invocation.fail();
+                throw e;
+            } finally {
+                invocation.finish();
+            }
+        };
+    }
+
+    /**
+     * Starts an invocation of this handler on the calling thread. The caller must {@link Invocation#end()}
+     * it once the handler returns.
+     */
+    Invocation begin() {
+        Invocation invocation = new Invocation(this, System.nanoTime());
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    private void record(long elapsedNanos) {
+        invocations.increment();
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean time from dispatch until the handler's work finished, in nanoseconds.
+     */
+    public long getAverageNanos() {
+        long count = getInvocations();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    /**
+     * One dispatch of a handler, finished either when the handler returns or, if it deferred its work,
+     * when the deferred task completes.
+     */
+    static final class Invocation {
+
+        private final CommandStats stats;
+        private final long start;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private boolean deferred;
+
+        private Invocation(CommandStats stats, long start) {
+            this.stats = stats;
+            this.start = start;
+        }
+
+        void fail() {
+            stats.errors.increment();
+        }
+
+        void end() {
+            CURRENT.remove();
+            if (!deferred) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                stats.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.CommandManager;
+
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+
+/**
+ * Handles button interactions whose component ID starts with this handler's prefix.
+ * Component IDs take the form {@code prefix:payload}; the {@link CommandListener} routes on the prefix.
+ */
+public interface ComponentHandler {
+
+    /**
+     * Returns the component ID prefix this handler owns, without the trailing colon.
+     *
+     * @return The prefix as a String.
+     */
+    String getPrefix();
+
+    /**
+     * Handles a button click routed to this handler.
+     *
+     * @param event The ButtonInteractionEvent object containing event details.
+     */
+    void handle(ButtonInteractionEvent event);
+}
@@ -7,7 +7,10 @@ import com.chalwk.CommandManager.CommandListener;
 import com.chalwk.Listeners.EventListeners;
 import com.chalwk.commands.*;
 import com.chalwk.game.GameManager;
+import com.chalwk.game.GameSnapshotStore;
+import com.chalwk.util.ChannelConfig;
 import com.chalwk.util.authentication;
+import com.chalwk.util.settings;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.requests.GatewayIntent;
@@ -16,6 +19,7 @@ import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * A class responsible for initializing and setting up the bot for the Virtual Pets game project.
@@ -53,6 +57,7 @@ public class BotInitializer {
     public void initializeBot() {
 
         gameManager = new GameManager();
+        Runtime.getRuntime().addShutdownHook(new Thread(ChannelConfig.getInstance()::flushPending, "minesweeper-config-flush"));
 
         DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createDefault(this.token)
                 .setStatus(OnlineStatus.ONLINE)
@@ -66,6 +71,16 @@ public class BotInitializer {
         shardManager = builder.build();
         shardManager.addEventListener(new EventListeners());
         registerCommands(shardManager);
+
+        GameSnapshotStore snapshots = new GameSnapshotStore(Paths.get(settings.getSnapshotFile()), gameManager);
+        snapshots.restore();
+        snapshots.start(settings.getSnapshotInterval());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            snapshots.close();
+            if (gameManager.getJournal() != null) {
+                gameManager.getJournal().close();
+            }
+        }, "minesweeper-snapshot-flush"));
     }
 
     /**
@@ -78,9 +93,12 @@ public class BotInitializer {
         commands.add(new channel(gameManager));
         commands.add(new flag(gameManager));
         commands.add(new help(gameManager));
+        commands.add(new hint(gameManager));
         commands.add(new reveal(gameManager));
         commands.add(new start(gameManager));
+        commands.add(new stats(commands, gameManager));
         commands.add(new stop(gameManager));
+        commands.add(new buttons(gameManager));
         shardManager.addEventListener(commands);
     }
 }
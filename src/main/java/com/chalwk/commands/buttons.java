@@ -0,0 +1,50 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.commands;
+
+import com.chalwk.CommandManager.ComponentHandler;
+import com.chalwk.game.ButtonCodec;
+import com.chalwk.game.Game;
+import com.chalwk.game.GameManager;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+
+/**
+ * Handles clicks on the button grid under a board. The move is posted to the game, which answers the click
+ * by editing the board message, so a click costs one request.
+ */
+public class buttons implements ComponentHandler {
+
+    private final GameManager gameManager;
+
+    public buttons(GameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    @Override
+    public String getPrefix() {
+        return ButtonCodec.PREFIX;
+    }
+
+    @Override
+    public void handle(ButtonInteractionEvent event) {
+        ButtonCodec.Click click = ButtonCodec.decode(event.getComponentId());
+        if (click == null) {
+            event.deferEdit().queue();
+            return;
+        }
+
+        Game game = gameManager.getGame(event.getUser());
+        if (game == null || game.getGameID() != click.gameID) {
+            event.reply("## This is not your game.").setEphemeral(true).queue();
+            return;
+        }
+
+        game.post(() -> {
+            if (game.isActive()) {
+                game.click(click, event);
+            } else {
+                event.deferEdit().queue();
+            }
+        });
+    }
+}
@@ -5,6 +5,7 @@ package com.chalwk.commands;
 import com.chalwk.CommandManager.CommandCooldownManager;
 import com.chalwk.CommandManager.CommandInterface;
 import com.chalwk.game.GameManager;
+import com.chalwk.util.ChannelConfig;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
@@ -15,15 +16,12 @@ import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import java.util.ArrayList;
 import java.util.List;
 
-import static com.chalwk.util.fileIO.isChannelIdConfigured;
-import static com.chalwk.util.fileIO.saveChannelID;
-
 /**
  * Represents a command for setting or removing the channel for the game to use.
  */
 public class channel implements CommandInterface {
 
-    private static final CommandCooldownManager COOLDOWN_MANAGER = new CommandCooldownManager();
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
     private final GameManager gameManager;
 
     public channel(GameManager gameManager) {
@@ -70,32 +68,36 @@ public class channel implements CommandInterface {
 
         TextChannel channel = event.getOption("channel").getAsChannel().asTextChannel();
 
-        String channelID = channel.getId();
         boolean isAddOperation = optionValue.equals("add");
 
         if (initialErrorChecking(event, channel)) return;
+
+        long guildID = event.getGuild().getIdLong();
+        long channelID = channel.getIdLong();
+        ChannelConfig config = ChannelConfig.getInstance();
+
         if (isAddOperation) {
-            if (isChannelIdConfigured(channelID)) {
+            if (!config.add(guildID, channelID)) {
                 event.reply("## Channel ID is already configured!").setEphemeral(true).queue();
                 return;
             }
+            event.reply("## Channel ID saved!").setEphemeral(true).queue();
         } else {
-            if (!isChannelIdConfigured(channelID)) {
+            if (!config.remove(guildID, channelID)) {
                 event.reply("## Channel ID is not configured! Unable to remove.").setEphemeral(true).queue();
                 return;
             }
+            event.reply("## Channel ID removed!").setEphemeral(true).queue();
         }
 
-        saveChannelID(channelID, isAddOperation, event, gameManager);
-
         COOLDOWN_MANAGER.setCooldown(getName(), event.getUser());
     }
 
     private boolean initialErrorChecking(SlashCommandInteractionEvent event, TextChannel channel) {
         Member member = event.getMember();
-        if (!member.hasPermission(Permission.ADMINISTRATOR)) {
+        if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
             event.reply("## You must be an administrator to use this command!").setEphemeral(true).queue();
-            return false;
+            return true;
         } else if (channel == null) {
             event.reply("## Invalid channel ID!").setEphemeral(true).queue();
             return true;
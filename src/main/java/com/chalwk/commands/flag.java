@@ -16,7 +16,7 @@ import java.util.List;
 
 public class flag implements CommandInterface {
 
-    private static final CommandCooldownManager COOLDOWN_MANAGER = new CommandCooldownManager();
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
     private final GameManager gameManager;
 
     public flag(GameManager gameManager) {
@@ -50,7 +50,8 @@ public class flag implements CommandInterface {
 
         User player = event.getUser();
 
-        if (!gameManager.isInGame(player)) {
+        Game game = gameManager.getGame(player);
+        if (game == null) {
             event.reply("## You are not in a game.").setEphemeral(true).queue();
             return;
         }
@@ -59,9 +60,15 @@ public class flag implements CommandInterface {
         int col = event.getOption("cols").getAsInt();
         boolean flagged = event.getOption("flag").getAsBoolean();
 
-        Game game = gameManager.getGame(player);
-        game.board.flagCell(row, col, flagged);
-        game.updateEmbed(game.board.getState(), event);
+        game.post(() -> {
+            if (!game.isActive()) {
+                event.reply("## You are not in a game.").setEphemeral(true).queue();
+                return;
+            }
+
+            game.board.flagCell(row, col, flagged);
+            game.updateEmbed(game.board.getState(), event);
+        });
 
         COOLDOWN_MANAGER.setCooldown(getName(), event.getUser());
     }
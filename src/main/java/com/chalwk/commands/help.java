@@ -12,7 +12,7 @@ import java.util.List;
 
 public class help implements CommandInterface {
 
-    private static final CommandCooldownManager COOLDOWN_MANAGER = new CommandCooldownManager();
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
     private final GameManager gameManager;
 
     public help(GameManager gameManager) {
@@ -44,18 +44,20 @@ public class help implements CommandInterface {
                 - Use the `/start` command to create a new game.
                 - Use the `/reveal` command to reveal a cell on the board.
                 - Use the `/flag` command to flag a cell on the board.
+                - Or click the buttons under the board: arrows move the view, and the last button switches between revealing and flagging.
                 - Use the `/stop` command to stop a game.
                 ## Game Rules:
-                - The game is played on a square board.
+                - The game is played on a rectangular board.
                 - The board is filled with mines and empty cells.
                 - The objective is to reveal all empty cells without revealing a mine.
                 - If a mine is revealed, the game ends.
                 - Flagging a cell prevents it from being revealed.
                 - The game is won when all empty cells are revealed.
                 ## Commands:
-                - `/start rows cols` - Create a new game.
-                - `/reveal rows cols` - Reveal a cell on the board.
+                - `/start rows cols [difficulty] [mines] [classic] [no_guess]` - Create a new game. Difficulty is easy, medium (default), hard or expert; `mines` sets an exact count instead. `classic` shows the board as spoiler-tagged emoji. `no_guess` deals a board that can be cleared from its opened centre cell without guessing.
+                - `/reveal rows cols [to_row] [to_col] [cells]` - Reveal a cell, the rectangle up to `to_row`/`to_col`, or a list of cells such as `1,2 3,4`. Revealing a number whose mines are all flagged reveals its other neighbours.
                 - `/flag rows cols flag` - Flag a cell on the board.
+                - `/hint` - Show a cell that can be worked out from the numbers, and why.
                 - `/stop` - Stop a game.
                 """;
 
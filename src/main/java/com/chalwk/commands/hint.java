@@ -0,0 +1,98 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.commands;
+
+import com.chalwk.CommandManager.CommandCooldownManager;
+import com.chalwk.CommandManager.CommandInterface;
+import com.chalwk.game.Game;
+import com.chalwk.game.GameManager;
+import com.chalwk.game.solver.Deduction;
+import com.chalwk.game.solver.Solver;
+import com.chalwk.game.solver.SolverResult;
+import com.chalwk.util.settings;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class hint implements CommandInterface {
+
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
+    private final GameManager gameManager;
+
+    public hint(GameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    /**
+     * Explains a deduction in terms of the numbers on the board. Flags are not used as evidence, so the
+     * explanation only ever points at revealed cells.
+     */
+    private static String describe(Deduction deduction) {
+        String cell = "**" + deduction.row + ", " + deduction.col + "**";
+        String verdict = deduction.mine ? cell + " is a mine" : cell + " is safe to reveal";
+        String source = deduction.sourceRow + ", " + deduction.sourceCol;
+        String other = deduction.otherRow + ", " + deduction.otherCol;
+        return switch (deduction.rule) {
+            case SINGLE -> verdict + ": the number at " + source + " settles it on its own.";
+            case SUBSET -> verdict + ": of the numbers at " + source + " and " + other + ", one's hidden "
+                    + "neighbours all touch the other, and the difference in their numbers falls on the rest.";
+            case PAIR -> verdict + ": comparing the numbers at " + source + " and " + other
+                    + " limits how many mines their shared neighbours can hold.";
+            case ENUMERATION -> verdict + ": every way of placing mines that fits the nearby numbers agrees on it.";
+            case MINE_COUNT -> verdict + ": it follows from the number of mines left on the board.";
+        };
+    }
+
+    @Override
+    public String getName() {
+        return "hint";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Show a cell that can be worked out from the board.";
+    }
+
+    @Override
+    public List<OptionData> getOptions() {
+        return List.of();
+    }
+
+    @Override
+    public void execute(SlashCommandInteractionEvent event) {
+        if (COOLDOWN_MANAGER.isOnCooldown(event)) return;
+
+        if (settings.notCorrectChannel(event)) return;
+
+        User player = event.getUser();
+
+        Game game = gameManager.getGame(player);
+        if (game == null) {
+            event.reply("## You are not in a game.").setEphemeral(true).queue();
+            return;
+        }
+
+        game.post(() -> {
+            if (!game.isActive()) {
+                event.reply("## You are not in a game.").setEphemeral(true).queue();
+                return;
+            }
+
+            Solver solver = new Solver(TimeUnit.MILLISECONDS.toNanos(settings.getHintBudgetMillis()));
+            SolverResult result = solver.solve(game.board, false);
+            Deduction deduction = result.getHint();
+            if (deduction != null) {
+                event.reply(describe(deduction)).setEphemeral(true).queue();
+            } else if (result.isComplete()) {
+                event.reply("## No safe move can be deduced. You will have to guess.").setEphemeral(true).queue();
+            } else {
+                event.reply("## No safe move was found in time.").setEphemeral(true).queue();
+            }
+        });
+
+        COOLDOWN_MANAGER.setCooldown(getName(), event.getUser());
+    }
+}
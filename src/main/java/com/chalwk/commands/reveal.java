@@ -4,12 +4,12 @@ package com.chalwk.commands;
 
 import com.chalwk.CommandManager.CommandCooldownManager;
 import com.chalwk.CommandManager.CommandInterface;
-import com.chalwk.game.BoardState;
 import com.chalwk.game.Game;
 import com.chalwk.game.GameManager;
 import com.chalwk.util.settings;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 
@@ -17,7 +17,7 @@ import java.util.List;
 
 public class reveal implements CommandInterface {
 
-    private static final CommandCooldownManager COOLDOWN_MANAGER = new CommandCooldownManager();
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
     private final GameManager gameManager;
 
     public reveal(GameManager gameManager) {
@@ -31,17 +31,79 @@ public class reveal implements CommandInterface {
 
     @Override
     public String getDescription() {
-        return "Reveal a cell on the board.";
+        return "Reveal a cell, a rectangle or a list of cells. Revealing a number chords it.";
     }
 
     @Override
     public List<OptionData> getOptions() {
         return List.of(
-                new OptionData(OptionType.INTEGER, "rows", "The row number", true),
-                new OptionData(OptionType.INTEGER, "cols", "The col number", true)
+                new OptionData(OptionType.INTEGER, "rows", "The row number", false),
+                new OptionData(OptionType.INTEGER, "cols", "The col number", false),
+                new OptionData(OptionType.INTEGER, "to_row", "The last row of a rectangle to reveal", false),
+                new OptionData(OptionType.INTEGER, "to_col", "The last col of a rectangle to reveal", false),
+                new OptionData(OptionType.STRING, "cells", "Cells to reveal as row,col pairs, e.g. 1,2 3,4", false)
         );
     }
 
+    /**
+     * Reads the cells a {@code /reveal} names as indexes into the board: the {@code cells} list if given,
+     * otherwise the rectangle from {@code rows}/{@code cols} to {@code to_row}/{@code to_col}, which is a
+     * single cell when the end is left out.
+     *
+     * @return the indexes, or null if the options do not name a valid batch
+     */
+    private static int[] readCells(SlashCommandInteractionEvent event, int boardRows, int boardCols) {
+        int limit = settings.getMaxBatchCells();
+        OptionMapping list = event.getOption("cells");
+        if (list != null) {
+            String[] pairs = list.getAsString().trim().split("[\\s;]+");
+            if (pairs.length > limit) {
+                return null;
+            }
+            int[] cells = new int[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                String[] parts = pairs[i].split(",");
+                try {
+                    int row = Integer.parseInt(parts[0].trim());
+                    int col = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : -1;
+                    if (row < 0 || row >= boardRows || col < 0 || col >= boardCols) {
+                        return null;
+                    }
+                    cells[i] = row * boardCols + col;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return cells;
+        }
+
+        OptionMapping rowOption = event.getOption("rows");
+        OptionMapping colOption = event.getOption("cols");
+        if (rowOption == null || colOption == null) {
+            return null;
+        }
+        int row = rowOption.getAsInt();
+        int col = colOption.getAsInt();
+        int toRow = event.getOption("to_row", row, OptionMapping::getAsInt);
+        int toCol = event.getOption("to_col", col, OptionMapping::getAsInt);
+        int firstRow = Math.min(row, toRow);
+        int lastRow = Math.max(row, toRow);
+        int firstCol = Math.min(col, toCol);
+        int lastCol = Math.max(col, toCol);
+        if (firstRow < 0 || firstCol < 0 || lastRow >= boardRows || lastCol >= boardCols
+                || (long) (lastRow - firstRow + 1) * (lastCol - firstCol + 1) > limit) {
+            return null;
+        }
+        int[] cells = new int[(lastRow - firstRow + 1) * (lastCol - firstCol + 1)];
+        int n = 0;
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                cells[n++] = i * boardCols + j;
+            }
+        }
+        return cells;
+    }
+
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (COOLDOWN_MANAGER.isOnCooldown(event)) return;
@@ -50,28 +112,31 @@ public class reveal implements CommandInterface {
 
         User player = event.getUser();
 
-        if (!gameManager.isInGame(player)) {
+        Game game = gameManager.getGame(player);
+        if (game == null) {
             event.reply("## You are not in a game.").setEphemeral(true).queue();
             return;
         }
 
-        int row = event.getOption("rows").getAsInt();
-        int col = event.getOption("cols").getAsInt();
-
-        Game game = gameManager.getGame(player);
-        game.board.revealCell(row, col);
-
-        BoardState state;
-
-        if (game.board.isGameWon()) {
-            state = BoardState.WON;
-        } else if (game.board.isGameLost(row, col)) {
-            state = BoardState.LOST;
-        } else {
-            state = game.board.getState();
+        int[] cells = readCells(event, game.board.getRows(), game.board.getCols());
+        if (cells == null) {
+            event.reply("## Invalid cells.\n" +
+                    "Give `rows` and `cols` for one cell, add `to_row` and `to_col` for a rectangle, " +
+                    "or list cells as `row,col` pairs in `cells`. At most **" + settings.getMaxBatchCells() +
+                    "** cells, all on the board.").setEphemeral(true).queue();
+            return;
         }
 
-        game.updateEmbed(state, event);
+        game.post(() -> {
+            if (!game.isActive()) {
+                event.reply("## You are not in a game.").setEphemeral(true).queue();
+                return;
+            }
+
+            // the whole batch is one move: one state check and one render
+            game.board.revealCells(cells, cells.length);
+            game.updateEmbed(game.board.getState(), event);
+        });
 
         COOLDOWN_MANAGER.setCooldown(getName(), event.getUser());
     }
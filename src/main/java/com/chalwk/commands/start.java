@@ -4,6 +4,7 @@ package com.chalwk.commands;
 
 import com.chalwk.CommandManager.CommandCooldownManager;
 import com.chalwk.CommandManager.CommandInterface;
+import com.chalwk.game.Difficulty;
 import com.chalwk.game.GameManager;
 import com.chalwk.util.GameConfig;
 import com.chalwk.util.settings;
@@ -13,10 +14,11 @@ import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 public class start implements CommandInterface {
 
-    private static final CommandCooldownManager COOLDOWN_MANAGER = new CommandCooldownManager();
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
     private final GameManager gameManager;
 
     public start(GameManager gameManager) {
@@ -35,9 +37,17 @@ public class start implements CommandInterface {
 
     @Override
     public List<OptionData> getOptions() {
+        OptionData difficulty = new OptionData(OptionType.STRING, "difficulty", "How many mines to place (default: medium)", false);
+        for (Difficulty preset : Difficulty.values()) {
+            difficulty.addChoice(preset.getLabel(), preset.getLabel());
+        }
         return List.of(
                 new OptionData(OptionType.INTEGER, "rows", "The number of rows", true),
-                new OptionData(OptionType.INTEGER, "cols", "The number of cols", true)
+                new OptionData(OptionType.INTEGER, "cols", "The number of cols", true),
+                difficulty,
+                new OptionData(OptionType.INTEGER, "mines", "A custom number of mines (overrides difficulty)", false),
+                new OptionData(OptionType.BOOLEAN, "classic", "Show the board as spoiler-tagged emoji (small boards only)", false),
+                new OptionData(OptionType.BOOLEAN, "no_guess", "Deal a board that can be solved without guessing", false)
         );
     }
 
@@ -49,21 +59,35 @@ public class start implements CommandInterface {
 
         User player = event.getUser();
 
-        if (gameManager.isInGame(player)) {
-            event.reply("## You are already in a game.").setEphemeral(true).queue();
-            return;
-        }
+        Lock lock = gameManager.lockFor(player);
+        lock.lock();
+        try {
+            if (gameManager.isInGame(player) || gameManager.isDealing(player)) {
+                event.reply("## You are already in a game.").setEphemeral(true).queue();
+                return;
+            }
 
-        GameConfig config = new GameConfig(player, event);
-        if (!config.isValidSquare()) {
-            String message = "# Invalid board size.\n" +
-                    "Please choose a square board size between **" + config.MIN_ROWS + "** x **" + config.MIN_ROWS + "** and **" + config.MAX_ROWS + " x " + config.MAX_ROWS + "**.\n" +
-                    "Your current board size is **" + config.rows + "** x **" + config.cols + "**.";
-            event.reply(message).setEphemeral(true).queue();
-            return;
-        }
+            GameConfig config = new GameConfig(player, event);
+            if (!config.isValidSize()) {
+                String message = "# Invalid board size.\n" +
+                        "Please choose a board size between **" + config.MIN_SIZE + "** x **" + config.MIN_SIZE + "** and **" + config.MAX_ROWS + "** x **" + config.MAX_COLS + "**" +
+                        " (at most **" + config.MAX_CELLS + "** cells).\n" +
+                        "Your current board size is **" + config.rows + "** x **" + config.cols + "**.";
+                event.reply(message).setEphemeral(true).queue();
+                return;
+            }
+            if (!config.isValidMineCount()) {
+                String message = "# Invalid number of mines.\n" +
+                        "A **" + config.rows + "** x **" + config.cols + "** board can hold between **1** and **" + config.getMaxMines() + "** mines.\n" +
+                        "You asked for **" + config.mines + "**.";
+                event.reply(message).setEphemeral(true).queue();
+                return;
+            }
 
-        gameManager.createGame(config, event);
+            gameManager.createGame(config, event);
+        } finally {
+            lock.unlock();
+        }
 
         COOLDOWN_MANAGER.setCooldown(getName(), event.getUser());
     }
@@ -0,0 +1,85 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.commands;
+
+import com.chalwk.CommandManager.CommandInterface;
+import com.chalwk.CommandManager.CommandListener;
+import com.chalwk.CommandManager.CommandStats;
+import com.chalwk.game.BoardPool;
+import com.chalwk.game.GameManager;
+import com.chalwk.game.RenderScheduler;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the bot's runtime counters to an administrator: per-command invocations, errors and latency,
+ * how many board edits were coalesced, how the no-guess board pool is doing, and the games and timers in
+ * flight.
+ */
+public class stats implements CommandInterface {
+
+    private final CommandListener listener;
+    private final GameManager gameManager;
+
+    public stats(CommandListener listener, GameManager gameManager) {
+        this.listener = listener;
+        this.gameManager = gameManager;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Override
+    public String getName() {
+        return "stats";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Show command latency and game counters (admins only)";
+    }
+
+    @Override
+    public List<OptionData> getOptions() {
+        return List.of();
+    }
+
+    @Override
+    public void execute(SlashCommandInteractionEvent event) {
+        Member member = event.getMember();
+        if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
+            event.reply("## You must be an administrator to use this command!").setEphemeral(true).queue();
+            return;
+        }
+
+        StringBuilder message = new StringBuilder("## Bot stats\n```\n");
+        message.append(String.format("%-12s %8s %6s %9s %9s%n", "command", "calls", "errors", "avg ms", "max ms"));
+        for (Map.Entry<String, CommandStats> entry : new TreeMap<>(listener.getStats()).entrySet()) {
+            CommandStats counters = entry.getValue();
+            message.append(String.format("%-12s %8d %6d %9s %9s%n", entry.getKey(), counters.getInvocations(),
+                    counters.getErrors(), millis(counters.getAverageNanos()), millis(counters.getMaxNanos())));
+        }
+        message.append("```\n");
+        message.append("Board updates: ").append(RenderScheduler.getRequestedCount()).append(" requested, ")
+                .append(RenderScheduler.getSentCount()).append(" sent, ")
+                .append(RenderScheduler.getCoalescedCount()).append(" coalesced\n");
+        BoardPool pool = gameManager.getBoardPool();
+        message.append("No-guess pool: ").append(pool.getHits()).append(" hits, ").append(pool.getMisses())
+                .append(" misses, ").append(pool.getPooledCount()).append(" ready; ").append(pool.getRefills())
+                .append(" searches (").append(pool.getFailedRefills()).append(" failed), avg ")
+                .append(millis(pool.getAverageRefillNanos())).append(" ms, max ")
+                .append(millis(pool.getMaxRefillNanos())).append(" ms\n");
+        message.append("Games running: ").append(gameManager.getGames().size())
+                .append(", timers pending: ").append(gameManager.getScheduler().getPendingTimers());
+
+        event.reply(message.toString()).setEphemeral(true).queue();
+    }
+}
@@ -15,7 +15,7 @@ import java.util.List;
 
 public class stop implements CommandInterface {
 
-    private static final CommandCooldownManager COOLDOWN_MANAGER = new CommandCooldownManager();
+    private static final CommandCooldownManager COOLDOWN_MANAGER = CommandCooldownManager.getInstance();
     private final GameManager gameManager;
 
     public stop(GameManager gameManager) {
@@ -45,15 +45,21 @@ public class stop implements CommandInterface {
 
         User player = event.getUser();
 
-        if (!gameManager.isInGame(player)) {
+        Game game = gameManager.getGame(player);
+        if (game == null) {
             event.reply("## You are not in a game!").setEphemeral(true).queue();
             return;
         }
 
-        Game game = gameManager.getGame(player);
-        game.endGame(player);
+        game.post(() -> {
+            if (!game.isActive()) {
+                event.reply("## You are not in a game!").setEphemeral(true).queue();
+                return;
+            }
 
-        event.reply("## Game stopped!").setEphemeral(true).queue();
+            game.endGame(player);
+            event.reply("## Game stopped!").setEphemeral(true).queue();
+        });
 
         COOLDOWN_MANAGER.setCooldown(getName(), event.getUser());
     }
@@ -3,88 +3,217 @@
 
 package com.chalwk.game;
 
-import java.util.Random;
-
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.chalwk.game.ChunkedBoardStore.*;
+
+/**
+ * A rectangular Minesweeper board backed by a {@link ChunkedBoardStore}.
+ * <p>
+ * Each cell is packed into a single byte: the adjacent-mine hint in the low nibble and the flag and
+ * revealed states in the upper bits, with mines held in a separate one-bit-per-cell layer. Compared with
+ * the original {@code Cell[][]} layout (a 24-byte object plus a 4-byte reference per cell, and a 16-byte
+ * array header per row, on a 64-bit JVM with compressed oops), a 10x10 board drops from roughly 3,000
+ * bytes to a few hundred, and tiles the player never touches are not allocated at all.
+ */
 public class Board {
 
-    private static final double MINE_DENSITY = 0.15;
-    private final Cell[][] board;
+    static final double MINE_DENSITY = 0.15;
+    /**
+     * Cells around the first click that are always kept free of mines.
+     */
+    public static final int SAFE_AREA = 9;
+
+    private final long seed;
+    private final ChunkedBoardStore store;
     private final int rows;
     private final int cols;
     private final int totalCells;
     private BoardState state;
     private int revealed;
-    private int mineCount;
+    private final int mineCount;
+    private boolean minesPlaced;
+    private boolean minesRevealed;
+    private int[] workStack = new int[16];
+    private int moves;
+    private MoveJournal journal;
+    private long gameID;
+
+    private final long[] dirtyRows;
+    private char[][] rowText;
+    private char[] headerText;
+    private StringBuilder renderBuffer;
 
     public Board(int rows, int cols) {
+        this(rows, cols, MINE_DENSITY);
+    }
+
+    /**
+     * Creates a board whose mines are generated from the given seed. Two boards with the same size and
+     * seed get the same mines for the same first click, so a seed is all that is needed to share,
+     * cache or replay a board.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param seed the seed for mine generation
+     */
+    public Board(int rows, int cols, long seed) {
+        this(rows, cols, MINE_DENSITY, seed);
+    }
+
+    /**
+     * Creates a board and generates its mines right away, keeping the given cell and its neighbours clear.
+     *
+     * @param rows    the number of rows
+     * @param cols    the number of columns
+     * @param seed    the seed for mine generation
+     * @param safeRow the row to keep clear, or -1 for none
+     * @param safeCol the column to keep clear, or -1 for none
+     * @return the generated board
+     */
+    public static Board generate(int rows, int cols, long seed, int safeRow, int safeCol) {
+        Board board = new Board(rows, cols, seed);
+        board.placeMines(safeRow, safeCol);
+        return board;
+    }
+
+    /**
+     * Creates a board with an exact number of mines, generated from the given seed. The count is capped so
+     * the first click's safe area always fits.
+     *
+     * @param rows  the number of rows
+     * @param cols  the number of columns
+     * @param mines the number of mines
+     * @param seed  the seed for mine generation
+     * @return the board, with mines still to be placed by the first reveal
+     */
+    public static Board withMines(int rows, int cols, int mines, long seed) {
+        return new Board(rows, cols, mines, seed);
+    }
+
+    /**
+     * Returns the number of mines a board of the given size gets at the given density.
+     */
+    public static int minesFor(int rows, int cols, double density) {
+        return (int) ((long) rows * cols * density);
+    }
+
+    Board(int rows, int cols, double mineDensity) {
+        this(rows, cols, mineDensity, ThreadLocalRandom.current().nextLong());
+    }
+
+    Board(int rows, int cols, double mineDensity, long seed) {
+        this(rows, cols, minesFor(rows, cols, mineDensity), seed);
+    }
+
+    private Board(int rows, int cols, int mines, long seed) {
         this.rows = rows;
         this.cols = cols;
-        this.board = new Cell[rows][cols];
+        this.seed = seed;
+        this.store = new ChunkedBoardStore(rows, cols);
         this.totalCells = rows * cols;
+        this.mineCount = Math.max(Math.min(mines, totalCells - SAFE_AREA), 0);
         this.revealed = 0;
         this.state = BoardState.ONGOING;
-        initializeBoard();
+        this.dirtyRows = new long[(rows + 63) >>> 6];
     }
 
-    private void initializeBoard() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                board[i][j] = new Cell();
-            }
+    /**
+     * Places mines anywhere on the board. Normally mines are placed lazily by the first
+     * {@link #revealCell(int, int)}; this is for callers that need a fully generated board up front.
+     */
+    public void placeMines() {
+        placeMines(-1, -1);
+    }
+
+    /**
+     * Places {@link #getMineCount()} mines, keeping the given cell and its neighbours clear. Does nothing
+     * if the mines have already been placed. The layout depends only on the board size, the seed and the
+     * safe cell; each call draws from its own {@link SplittableRandom}, so concurrent games share no
+     * generator state.
+     *
+     * @param safeRow the row of the first click, or -1 for no safe area
+     * @param safeCol the column of the first click, or -1 for no safe area
+     */
+    public void placeMines(int safeRow, int safeCol) {
+        if (minesPlaced) {
+            return;
         }
+        minesPlaced = true;
 
-        this.placeMines();
-        this.calculateHints();
+        int[] excluded = safeArea(safeRow, safeCol);
+        for (int index : MineGenerator.sample(totalCells, mineCount, excluded, new SplittableRandom(seed))) {
+            placeMine(index / cols, index % cols);
+        }
     }
 
-    public void placeMines() {
-        Random random = new Random();
-        int numMines = (int) (rows * cols * MINE_DENSITY);
-        int minesPlaced = 0;
-        while (minesPlaced <= numMines) {
-            int row = random.nextInt(rows);
-            int col = random.nextInt(cols);
-            if (!board[row][col].isMine()) {
-                board[row][col].setMine(true);
-                minesPlaced++;
+    private int[] safeArea(int row, int col) {
+        if (!isValidCoordinate(row, col)) {
+            return new int[0];
+        }
+        int rowEnd = Math.min(row + 1, rows - 1);
+        int colEnd = Math.min(col + 1, cols - 1);
+        int[] area = new int[SAFE_AREA];
+        int size = 0;
+        for (int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+            for (int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+                area[size++] = i * cols + j;
             }
         }
-        this.mineCount = numMines;
+        return Arrays.copyOf(area, size);
     }
 
-    public void flagCell(int row, int col, boolean flagged) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
-            return;
+    private void placeMine(int row, int col) {
+        store.setMine(row, col);
+        int rowEnd = Math.min(row + 1, rows - 1);
+        int colEnd = Math.min(col + 1, cols - 1);
+        for (int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+            for (int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+                store.incrementHint(i, j);
+            }
         }
-        board[row][col].setFlagged(flagged);
     }
 
-    private int countAdjacentMines(int row, int col) {
-        int count = 0;
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                int newRow = row + i;
-                int newCol = col + j;
-                if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
-                    continue;
-                }
-                if (board[newRow][newCol].isMine()) {
-                    count++;
-                }
-            }
+    /**
+     * Records every later move to the journal under the given game ID.
+     */
+    void setJournal(MoveJournal journal, long gameID) {
+        this.journal = journal;
+        this.gameID = gameID;
+    }
+
+    /**
+     * Counts and journals a move. Called only once the move has changed the board, so a move that did
+     * nothing (revealing a revealed cell, flagging a flagged one) costs no record.
+     */
+    private void record(int type, int row, int col) {
+        moves++;
+        if (journal != null) {
+            journal.appendMove(gameID, type, moves, row, col);
         }
-        return count;
     }
 
-    public void calculateHints() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (!board[i][j].isMine()) {
-                    int hint = countAdjacentMines(i, j);
-                    board[i][j].setHint(hint);
-                }
-            }
+    /**
+     * Flags or unflags a hidden cell. Revealed cells cannot be flagged, and the call does nothing for them.
+     */
+    public void flagCell(int row, int col, boolean flagged) {
+        if (!isValidCoordinate(row, col) || (store.get(row, col) & REVEALED) != 0) {
+            return;
+        }
+        int cell = store.get(row, col);
+        if (((cell & FLAGGED) != 0) == flagged) {
+            return;
         }
+        cell = store.touch(row, col);
+        store.set(row, col, flagged ? cell | FLAGGED : cell & ~FLAGGED);
+        markDirty(row);
+        record(flagged ? MoveJournal.FLAG : MoveJournal.UNFLAG, row, col);
+    }
+
+    public void calculateHints() {
+        store.recalculateHints();
     }
 
     private boolean isValidCoordinate(int row, int col) {
@@ -92,67 +221,251 @@ public class Board {
     }
 
     public void revealCell(int row, int col) {
-        Cell cell = board[row][col];
-        if (cell.isMine()) {
-            state = BoardState.LOST;
-            revealAllMines();
+        if (!isValidCoordinate(row, col)) {
             return;
         }
-        if (cell.isRevealed()) {
+        if ((store.get(row, col) & (REVEALED | FLAGGED)) != 0) {
             return;
         }
-        cell.setRevealed(true);
-        revealed++;
-        if (cell.isEmpty()) {
-            revealEmptyCell(row, col);
-        } else if (cell.getHint() == 0) {
-            revealEmptyCell(row, col);
+        placeMines(row, col);
+        int cell = store.touch(row, col);
+        markDirty(row);
+        if (store.isMine(row, col)) {
+            store.set(row, col, cell | REVEALED);
+            state = BoardState.LOST;
+            revealAllMines();
+            record(MoveJournal.REVEAL, row, col);
+            return;
         }
-
-        // Update neighboring cells' reveal status if they are not mines
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                if ((i == 0 && j == 0) || !isValidCoordinate(row + i, col + j)) {
-                    continue;
-                }
-                Cell neighbor = board[row + i][col + j];
-                if (!neighbor.isMine()) {
-                    neighbor.setRevealed(true);
-                }
-            }
+        store.set(row, col, cell | REVEALED);
+        revealed++;
+        if ((cell & HINT_MASK) == 0) {
+            floodFill(row, col);
         }
 
         if (revealed == totalCells - mineCount) {
             state = BoardState.WON;
             revealAllMines();
         }
+        record(MoveJournal.REVEAL, row, col);
     }
 
-    private void revealEmptyCell(int row, int col) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
-            return;
+    /**
+     * Chords a revealed number: if exactly as many of its neighbours are flagged as the number says,
+     * every other hidden neighbour is revealed. A wrong flag means a mine is revealed and the game lost,
+     * as in the classic game. Each neighbour is journaled as its own reveal, so replaying the journal
+     * needs no knowledge of chords.
+     *
+     * @return true if the flags matched and the neighbours were revealed
+     */
+    public boolean chordCell(int row, int col) {
+        if (!isValidCoordinate(row, col) || state != BoardState.ONGOING) {
+            return false;
         }
-        Cell cell = board[row][col];
-        if (!cell.isEmpty()) {
-            return;
+        int cell = store.get(row, col);
+        int hint = cell & HINT_MASK;
+        if ((cell & REVEALED) == 0 || hint == 0 || store.isMine(row, col)) {
+            return false;
+        }
+
+        int rowStart = Math.max(row - 1, 0);
+        int rowEnd = Math.min(row + 1, rows - 1);
+        int colStart = Math.max(col - 1, 0);
+        int colEnd = Math.min(col + 1, cols - 1);
+        int flags = 0;
+        for (int i = rowStart; i <= rowEnd; i++) {
+            for (int j = colStart; j <= colEnd; j++) {
+                // only hidden flags count; a flag left on a revealed cell says nothing about mines
+                if ((store.get(i, j) & (FLAGGED | REVEALED)) == FLAGGED) {
+                    flags++;
+                }
+            }
         }
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                revealCell(row + i, col + j);
+        if (flags != hint) {
+            return false;
+        }
+
+        for (int i = rowStart; i <= rowEnd && state == BoardState.ONGOING; i++) {
+            for (int j = colStart; j <= colEnd && state == BoardState.ONGOING; j++) {
+                if ((store.get(i, j) & (REVEALED | FLAGGED)) == 0) {
+                    revealCell(i, j);
+                }
             }
         }
+        return true;
     }
 
-    public void revealAllMines() {
-        for (Cell[] row : board) {
-            for (Cell cell : row) {
-                if (cell.isMine()) {
-                    cell.setRevealed(true);
+    /**
+     * Applies a batch of reveals as one move: hidden cells are revealed, and numbers that were already
+     * revealed before the batch are {@linkplain #chordCell(int, int) chorded}. Cells opened by an earlier
+     * entry's flood fill are skipped rather than chorded, so a batch only ever chords numbers the player
+     * targeted. Flagged cells and out-of-range indexes are skipped too, and the batch stops as soon as the
+     * game is won or lost, so the caller checks the state once afterwards.
+     *
+     * @param cells cell indexes, {@code row * cols + col}
+     * @param count the number of entries of {@code cells} to apply
+     * @return the number of cells revealed, including flood-filled regions
+     */
+    public int revealCells(int[] cells, int count) {
+        int before = revealed;
+        boolean[] chord = new boolean[count];
+        for (int k = 0; k < count; k++) {
+            int index = cells[k];
+            chord[k] = index >= 0 && index < totalCells && (store.get(index / cols, index % cols) & REVEALED) != 0;
+        }
+        for (int k = 0; k < count && state == BoardState.ONGOING; k++) {
+            int index = cells[k];
+            if (index < 0 || index >= totalCells) {
+                continue;
+            }
+            int row = index / cols;
+            int col = index - row * cols;
+            if (chord[k]) {
+                chordCell(row, col);
+            } else if ((store.get(row, col) & (REVEALED | FLAGGED)) == 0) {
+                revealCell(row, col);
+            }
+        }
+        return revealed - before;
+    }
+
+    /**
+     * Reveals the region connected to an already revealed zero-hint cell.
+     * <p>
+     * Cells are marked revealed as they are pushed, so each cell enters the work stack at most once and
+     * the fill is linear in the size of the region. Only zero-hint cells are pushed; numbered cells form
+     * the border of the region and are revealed without expanding further.
+     *
+     * @param originRow the row of the zero-hint cell the fill starts from
+     * @param originCol the column of the zero-hint cell the fill starts from
+     */
+    private void floodFill(int originRow, int originCol) {
+        int[] stack = workStack;
+        int top = 0;
+        stack[top++] = originRow * cols + originCol;
+
+        while (top > 0) {
+            int index = stack[--top];
+            int row = index / cols;
+            int col = index - row * cols;
+            int rowEnd = Math.min(row + 1, rows - 1);
+            int colEnd = Math.min(col + 1, cols - 1);
+
+            for (int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+                for (int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+                    int cell = store.touch(i, j);
+                    if ((cell & (REVEALED | FLAGGED)) != 0 || store.isMine(i, j)) {
+                        continue;
+                    }
+                    store.set(i, j, cell | REVEALED);
+                    markDirty(i);
+                    revealed++;
+                    if ((cell & HINT_MASK) == 0) {
+                        if (top == stack.length) {
+                            stack = workStack = Arrays.copyOf(stack, Math.min(stack.length << 1, totalCells));
+                        }
+                        stack[top++] = i * cols + j;
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Shows every mine on the board. Mines are reported as revealed from here on without writing to
+     * the cell tiles, so ending a game on a large board does not allocate the tiles nobody explored.
+     */
+    public void revealAllMines() {
+        minesRevealed = true;
+        Arrays.fill(dirtyRows, -1L);
+    }
+
+    private void markDirty(int row) {
+        dirtyRows[row >>> 6] |= 1L << row;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    public boolean isMine(int row, int col) {
+        return store.isMine(row, col);
+    }
+
+    public boolean isFlagged(int row, int col) {
+        return (store.get(row, col) & FLAGGED) != 0;
+    }
+
+    public boolean isRevealed(int row, int col) {
+        return (store.get(row, col) & REVEALED) != 0 || (minesRevealed && store.isMine(row, col));
+    }
+
+    public int getHint(int row, int col) {
+        return store.hint(row, col);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of reveal and flag moves applied to this board.
+     */
+    public int getMoveCount() {
+        return moves;
+    }
+
+    /**
+     * Moves the move counter up to a journaled move number. Replay uses it so the numbering stays in step
+     * with the journal even where older journals recorded moves that changed nothing.
+     */
+    void advanceMoveCount(int move) {
+        moves = Math.max(moves, move);
+    }
+
+    boolean areMinesPlaced() {
+        return minesPlaced;
+    }
+
+    boolean areMinesRevealed() {
+        return minesRevealed;
+    }
+
+    int getRevealedCount() {
+        return revealed;
+    }
+
+    ChunkedBoardStore getStore() {
+        return store;
+    }
+
+    /**
+     * Restores the progress counters of a board whose cells were loaded from a snapshot.
+     */
+    void restore(BoardState state, int revealed, boolean minesPlaced, boolean minesRevealed, int moves) {
+        this.state = state;
+        this.moves = moves;
+        this.revealed = revealed;
+        this.minesPlaced = minesPlaced;
+        this.minesRevealed = minesRevealed;
+        invalidateRenderCache();
+    }
+
+    /**
+     * Approximates the heap held by this board's cell storage, in bytes.
+     */
+    public long getFootprintBytes() {
+        return store.footprintBytes();
+    }
+
     public BoardState getState() {
         return state;
     }
@@ -162,50 +475,139 @@ public class Board {
     }
 
     public boolean isGameLost(int row, int col) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+        if (!isValidCoordinate(row, col)) {
             return false;
         }
-        Cell cell = board[row][col];
-        return cell.isMine() && cell.isRevealed();
+        return store.isMine(row, col) && isRevealed(row, col);
     }
 
+    /**
+     * Renders the board as a code block.
+     * <p>
+     * Each row's text is cached and only the rows changed since the previous call are re-encoded, so the
+     * cost of a render after a single move is one row plus copying the cached rows into a buffer that is
+     * sized once and reused.
+     *
+     * @return the board as a Markdown code block
+     */
     public String buildBoardString() {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = renderBuffer;
+        if (sb == null) {
+            initializeRenderCache();
+            sb = renderBuffer;
+        }
+        sb.setLength(0);
+        appendBoardString(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the text of {@link #buildBoardString()} to a buffer, re-encoding only the rows changed since
+     * the previous render.
+     *
+     * @param sb the buffer to append to
+     */
+    public void appendBoardString(StringBuilder sb) {
+        if (rowText == null) {
+            initializeRenderCache();
+        }
+
+        for (int w = 0; w < dirtyRows.length; w++) {
+            long word = dirtyRows[w];
+            dirtyRows[w] = 0;
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (row < rows) {
+                    encodeRow(row);
+                }
+            }
+        }
 
         sb.append("```\n");
-        sb.append("   ");
+        sb.append(headerText);
+        for (char[] line : rowText) {
+            sb.append(line);
+        }
+        sb.append("```");
+    }
+
+    /**
+     * Returns the length of the string {@link #buildBoardString()} produces for this board's size, without
+     * rendering it.
+     */
+    public int getBoardStringLength() {
+        long length = 4 + 3 + 3 + 1; // fences, header indent and newline
         for (int j = 0; j < cols; j++) {
-            sb.append(j).append("   ");
+            length += Integer.toString(j).length() + 3;
         }
-        sb.append("\n");
+        for (int i = 0; i < rows; i++) {
+            length += Integer.toString(i).length() + 1 + cols * 4L + 1;
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Forces every row to be re-encoded by the next {@link #buildBoardString()}.
+     */
+    void invalidateRenderCache() {
+        Arrays.fill(dirtyRows, -1L);
+    }
 
+    private void initializeRenderCache() {
+        StringBuilder header = new StringBuilder("   ");
+        for (int j = 0; j < cols; j++) {
+            header.append(j).append("   ");
+        }
+        header.append("\n");
+        headerText = header.toString().toCharArray();
+
+        int capacity = headerText.length + 7;
+        rowText = new char[rows][];
         for (int i = 0; i < rows; i++) {
-            sb.append(i).append(" ");
-            for (int j = 0; j < cols; j++) {
-                Cell cell = board[i][j];
-
-                if (cell.isRevealed()) {
-                    if (cell.isMine()) {
-                        sb.append("[*] "); // this represents a mine
-                    } else if (cell.getHint() == 0) {
-                        sb.append("[ ] "); // this represents a cell with no adjacent mines
-                    } else {
-                        sb.append("[").append(cell.getHint()).append("] "); // hint (number of adjacent mines)
-                    }
-                } else if (cell.isFlagged()) {
-                    sb.append("[?] "); // this represents a flag
+            String label = i + " ";
+            char[] line = new char[label.length() + cols * 4 + 1];
+            label.getChars(0, label.length(), line, 0);
+            line[line.length - 1] = '\n';
+            rowText[i] = line;
+            capacity += line.length;
+        }
+        renderBuffer = new StringBuilder(capacity);
+        invalidateRenderCache();
+    }
+
+    private void encodeRow(int row) {
+        char[] line = rowText[row];
+        int p = line.length - 1 - cols * 4;
+        for (int j = 0; j < cols; j++) {
+            char symbol;
+            if (isRevealed(row, j)) {
+                if (store.isMine(row, j)) {
+                    symbol = '*'; // this represents a mine
                 } else {
-                    sb.append("[.] "); // this represents an unrevealed empty cell
+                    int hint = store.get(row, j) & HINT_MASK;
+                    symbol = hint == 0 ? ' ' : (char) ('0' + hint); // blank, or the number of adjacent mines
                 }
+            } else if (isFlagged(row, j)) {
+                symbol = '?'; // this represents a flag
+            } else {
+                symbol = '.'; // this represents an unrevealed empty cell
             }
-            sb.append("\n");
+            line[p++] = '[';
+            line[p++] = symbol;
+            line[p++] = ']';
+            line[p++] = ' ';
         }
-
-        sb.append("```");
-        return sb.toString();
     }
 
-
+    /**
+     * The per-cell object the board was stored as before cells were packed into bytes. It is kept so code
+     * built against it still compiles; the board no longer holds or returns instances of it, and changing
+     * one does not change any board.
+     *
+     * @deprecated use the cell accessors on {@link Board}, such as {@link #isMine(int, int)}
+     */
+    @Deprecated
     public static class Cell {
 
         private boolean mine;
@@ -249,4 +651,4 @@ public class Board {
             this.hint = hint;
         }
     }
-}
\ No newline at end of file
+}
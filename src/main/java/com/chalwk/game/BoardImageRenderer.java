@@ -0,0 +1,396 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static com.chalwk.game.ChunkedBoardStore.*;
+
+/**
+ * Draws a {@link Board} as a PNG image, for boards whose text grid would not fit in an embed.
+ * <p>
+ * The image is an 8-bit palette PNG kept as a raster for the lifetime of the game. Each render compares
+ * every cell with the tile drawn for it last time and copies only changed tiles from the shared
+ * {@link TileAtlas}. The compressed image data is kept per band, one band per row of cells, and each band
+ * is deflated on its own with a full flush so it does not depend on the bands before it; a render only
+ * recompresses the bands that changed and then stitches the cached bands into the file, combining their
+ * checksums instead of re-reading the whole raster.
+ * <p>
+ * Row and column numbers are drawn along the top and left edges, every cell on small boards and every
+ * few cells where they would not fit. The image never exceeds {@link #MAX_IMAGE_EDGE} on either side: a
+ * board too large for that even at {@link #MIN_TILE_SIZE} is drawn through a viewport of as many cells as
+ * fit, moved with {@link #follow(int, int, int, int)}, so the raster is at most 16 MB however large the
+ * board. Not thread-safe; renders for a game run on its mailbox.
+ */
+public class BoardImageRenderer {
+
+    /**
+     * The largest edge, in pixels, a board is scaled down to fit before tiles reach their minimum size.
+     */
+    public static final int MAX_IMAGE_EDGE = 4096;
+    public static final int MAX_TILE_SIZE = 24;
+    public static final int MIN_TILE_SIZE = 4;
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte FILTER_NONE = 0;
+    private static final byte FILTER_UP = 2;
+    private static final int[] LABEL_STEPS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final Board board;
+    private final TileAtlas atlas;
+    private final int tile;
+    private final int scale;
+    private final int left;
+    private final int top;
+    private final int viewRows;
+    private final int viewCols;
+    private final int width;
+    private final int height;
+    private final byte[] pixels;
+    private final byte[] drawn;
+    private int originRow;
+    private int originCol;
+
+    private final byte[][] bandData;
+    private final long[] bandAdler;
+    private final int[] bandLength;
+    private final boolean[] bandDirty;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private byte[] filtered = new byte[0];
+    private byte[] deflateBuffer = new byte[8192];
+
+    public BoardImageRenderer(Board board) {
+        this.board = board;
+        int rows = board.getRows();
+        int cols = board.getCols();
+        this.tile = tileSizeFor(rows, cols);
+        this.atlas = TileAtlas.forSize(tile);
+
+        this.scale = labelScale(tile);
+        this.top = topMargin(scale);
+        this.left = leftMargin(rows, scale);
+        this.viewRows = Math.min(rows, (MAX_IMAGE_EDGE - top) / tile);
+        this.viewCols = Math.min(cols, (MAX_IMAGE_EDGE - left) / tile);
+        this.width = left + viewCols * tile;
+        this.height = top + viewRows * tile;
+        this.pixels = new byte[width * height];
+        this.drawn = new byte[viewRows * viewCols];
+
+        int bands = viewRows + 1;
+        this.bandData = new byte[bands][];
+        this.bandAdler = new long[bands];
+        this.bandLength = new int[bands];
+        this.bandDirty = new boolean[bands];
+        redrawAll();
+    }
+
+    /**
+     * Returns the tile edge used for a board: as large as possible up to {@link #MAX_TILE_SIZE} while the
+     * whole board, with its labels, stays within {@link #MAX_IMAGE_EDGE}, but never below
+     * {@link #MIN_TILE_SIZE}. At the minimum a larger board is shown through a viewport.
+     */
+    public static int tileSizeFor(int rows, int cols) {
+        for (int tile = MAX_TILE_SIZE; tile > MIN_TILE_SIZE; tile--) {
+            int scale = labelScale(tile);
+            if (topMargin(scale) + (long) rows * tile <= MAX_IMAGE_EDGE
+                    && leftMargin(rows, scale) + (long) cols * tile <= MAX_IMAGE_EDGE) {
+                return tile;
+            }
+        }
+        return MIN_TILE_SIZE;
+    }
+
+    private static int labelScale(int tile) {
+        return tile >= 16 ? 2 : 1;
+    }
+
+    private static int topMargin(int scale) {
+        return 5 * scale + 4;
+    }
+
+    private static int leftMargin(int rows, int scale) {
+        return digits(rows - 1) * 4 * scale + 4;
+    }
+
+    private static int digits(int value) {
+        return Integer.toString(Math.max(value, 0)).length();
+    }
+
+    private static int labelStep(int minimumPixels, int tile) {
+        for (int step : LABEL_STEPS) {
+            if (step * tile >= minimumPixels) {
+                return step;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static long combineAdler(long first, long second, long secondLength) {
+        final long base = 65521;
+        long remainder = secondLength % base;
+        long sum1 = first & 0xFFFF;
+        long sum2 = (remainder * sum1) % base;
+        sum1 += (second & 0xFFFF) + base - 1;
+        sum2 += ((first >>> 16) & 0xFFFF) + ((second >>> 16) & 0xFFFF) + base - remainder;
+        if (sum1 >= base) sum1 -= base;
+        if (sum1 >= base) sum1 -= base;
+        if (sum2 >= base << 1) sum2 -= base << 1;
+        if (sum2 >= base) sum2 -= base;
+        return (sum2 << 16) | sum1;
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, long value) {
+        out.write((int) (value >>> 24));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 8));
+        out.write((int) value);
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data, int length) {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data, 0, length);
+        writeInt(out, length);
+        out.write(name, 0, name.length);
+        out.write(data, 0, length);
+        writeInt(out, crc.getValue());
+    }
+
+    public int getTileSize() {
+        return tile;
+    }
+
+    /**
+     * Returns true if the image shows only part of the board.
+     */
+    public boolean isViewport() {
+        return viewRows < board.getRows() || viewCols < board.getCols();
+    }
+
+    public int getOriginRow() {
+        return originRow;
+    }
+
+    public int getOriginCol() {
+        return originCol;
+    }
+
+    public int getViewRows() {
+        return viewRows;
+    }
+
+    public int getViewCols() {
+        return viewCols;
+    }
+
+    /**
+     * Moves the viewport, if it has to, so it contains the given block of cells, centring the block when
+     * it moves. Does nothing when the whole board fits in the image.
+     *
+     * @param row  the first row of the block
+     * @param col  the first column of the block
+     * @param rows the number of rows in the block
+     * @param cols the number of columns in the block
+     */
+    public void follow(int row, int col, int rows, int cols) {
+        int newRow = originRow;
+        int newCol = originCol;
+        if (row < originRow || row + rows > originRow + viewRows) {
+            newRow = Math.max(Math.min(row - (viewRows - rows) / 2, board.getRows() - viewRows), 0);
+        }
+        if (col < originCol || col + cols > originCol + viewCols) {
+            newCol = Math.max(Math.min(col - (viewCols - cols) / 2, board.getCols() - viewCols), 0);
+        }
+        if (newRow != originRow || newCol != originCol) {
+            originRow = newRow;
+            originCol = newCol;
+            redrawAll();
+        }
+    }
+
+    /**
+     * Clears the raster and redraws the labels for the current origin, forcing every tile and band to be
+     * drawn again by the next render.
+     */
+    private void redrawAll() {
+        Arrays.fill(drawn, (byte) -1);
+        Arrays.fill(bandDirty, true);
+        drawLabels();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private void drawLabels() {
+        Arrays.fill(pixels, TileAtlas.BACKGROUND);
+        int glyph = 4 * scale;
+
+        // labels sit on multiples of the step in board coordinates, so they do not shift as the view moves
+        int colStep = labelStep(digits(board.getCols() - 1) * glyph + 2, tile);
+        int firstCol = (originCol + colStep - 1) / colStep * colStep;
+        for (int col = firstCol; col < originCol + viewCols; col += colStep) {
+            int cellX = left + (col - originCol) * tile;
+            int x = cellX + (tile - digits(col) * glyph + scale) / 2;
+            drawNumber(col, Math.max(x, cellX), 2, scale);
+        }
+        int rowStep = labelStep(5 * scale + 2, tile);
+        int firstRow = (originRow + rowStep - 1) / rowStep * rowStep;
+        for (int row = firstRow; row < originRow + viewRows; row += rowStep) {
+            int x = left - 2 - digits(row) * glyph + scale;
+            drawNumber(row, x, top + (row - originRow) * tile + (tile - 5 * scale) / 2, scale);
+        }
+    }
+
+    private void drawNumber(int value, int x, int y, int scale) {
+        String text = Integer.toString(value);
+        for (int i = 0; i < text.length(); i++) {
+            int gx = x + i * 4 * scale;
+            if (gx + 3 * scale <= width && y >= 0 && y + 5 * scale <= height) {
+                TileAtlas.drawDigit(pixels, width, gx, y, text.charAt(i) - '0', scale, TileAtlas.LABEL);
+            }
+        }
+    }
+
+    private int tileFor(ChunkedBoardStore store, boolean minesRevealed, int row, int col) {
+        int cell = store.get(row, col);
+        boolean mine = store.isMine(row, col);
+        if ((cell & REVEALED) != 0 || (minesRevealed && mine)) {
+            return mine ? TileAtlas.MINE : TileAtlas.DIGIT + (cell & HINT_MASK);
+        }
+        return (cell & FLAGGED) != 0 ? TileAtlas.FLAG : TileAtlas.HIDDEN;
+    }
+
+    /**
+     * Renders the board as PNG file data.
+     *
+     * @return the encoded image
+     */
+    public byte[] render() {
+        ChunkedBoardStore store = board.getStore();
+        boolean minesRevealed = board.areMinesRevealed();
+
+        for (int r = 0; r < viewRows; r++) {
+            int y = top + r * tile;
+            for (int c = 0; c < viewCols; c++) {
+                int index = r * viewCols + c;
+                int current = tileFor(store, minesRevealed, originRow + r, originCol + c);
+                if (drawn[index] == current) {
+                    continue;
+                }
+                drawn[index] = (byte) current;
+                bandDirty[r + 1] = true;
+                byte[] source = atlas.tile(current);
+                int x = left + c * tile;
+                for (int line = 0; line < tile; line++) {
+                    System.arraycopy(source, line * tile, pixels, (y + line) * width + x, tile);
+                }
+            }
+        }
+
+        for (int band = 0; band < bandDirty.length; band++) {
+            if (bandDirty[band]) {
+                compressBand(band);
+                bandDirty[band] = false;
+            }
+        }
+        return encode();
+    }
+
+    /**
+     * Filters and deflates one band. The first scanline of a band is stored unfiltered and the rest use
+     * the Up filter, so a band never depends on the pixels of another.
+     */
+    private void compressBand(int band) {
+        int firstLine = band == 0 ? 0 : top + (band - 1) * tile;
+        int lines = band == 0 ? top : tile;
+        int stride = width + 1;
+        int length = lines * stride;
+        if (filtered.length < length) {
+            filtered = new byte[length];
+        }
+
+        for (int line = 0; line < lines; line++) {
+            int source = (firstLine + line) * width;
+            int target = line * stride;
+            if (line == 0) {
+                filtered[target] = FILTER_NONE;
+                System.arraycopy(pixels, source, filtered, target + 1, width);
+            } else {
+                filtered[target] = FILTER_UP;
+                for (int x = 0; x < width; x++) {
+                    filtered[target + 1 + x] = (byte) (pixels[source + x] - pixels[source - width + x]);
+                }
+            }
+        }
+
+        Adler32 adler = new Adler32();
+        adler.update(filtered, 0, length);
+        bandAdler[band] = adler.getValue();
+        bandLength[band] = length;
+
+        deflater.reset();
+        deflater.setInput(filtered, 0, length);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(length / 16, 64));
+        int produced;
+        do {
+            produced = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.FULL_FLUSH);
+            out.write(deflateBuffer, 0, produced);
+        } while (produced == deflateBuffer.length || !deflater.needsInput());
+        bandData[band] = out.toByteArray();
+    }
+
+    private byte[] encode() {
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        idat.write(0x78);
+        idat.write(0x01);
+        long adler = 1;
+        for (int band = 0; band < bandData.length; band++) {
+            idat.write(bandData[band], 0, bandData[band].length);
+            adler = combineAdler(adler, bandAdler[band], bandLength[band]);
+        }
+        // an empty final block closes the deflate stream after the flushed bands
+        idat.write(0x03);
+        idat.write(0x00);
+        writeInt(idat, adler);
+
+        byte[] header = new byte[13];
+        header[0] = (byte) (width >>> 24);
+        header[1] = (byte) (width >>> 16);
+        header[2] = (byte) (width >>> 8);
+        header[3] = (byte) width;
+        header[4] = (byte) (height >>> 24);
+        header[5] = (byte) (height >>> 16);
+        header[6] = (byte) (height >>> 8);
+        header[7] = (byte) height;
+        header[8] = 8; // bit depth
+        header[9] = 3; // palette colour
+
+        byte[] palette = new byte[TileAtlas.PALETTE.length * 3];
+        for (int i = 0; i < TileAtlas.PALETTE.length; i++) {
+            palette[i * 3] = (byte) (TileAtlas.PALETTE[i] >>> 16);
+            palette[i * 3 + 1] = (byte) (TileAtlas.PALETTE[i] >>> 8);
+            palette[i * 3 + 2] = (byte) TileAtlas.PALETTE[i];
+        }
+
+        byte[] data = idat.toByteArray();
+        ByteArrayOutputStream png = new ByteArrayOutputStream(data.length + 128);
+        png.write(SIGNATURE, 0, SIGNATURE.length);
+        writeChunk(png, "IHDR", header, header.length);
+        writeChunk(png, "PLTE", palette, palette.length);
+        writeChunk(png, "IDAT", data, data.length);
+        writeChunk(png, "IEND", new byte[0], 0);
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,217 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import com.chalwk.game.solver.NoGuessGenerator;
+import com.chalwk.util.Logging.Logger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a few no-guess boards ready for each board configuration that has been played, so a no-guess
+ * {@code /start} can usually skip the search of {@link NoGuessGenerator} and start at once.
+ * <p>
+ * Ordinary boards are not pooled: their mines go down on the first reveal, so building one costs next
+ * to nothing. A no-guess board has its mines placed around the centre cell the game opens with, and
+ * finding one can take up to the search budget. A configuration gets a pool the first time it is asked
+ * for, and a pool is topped back up to {@code capacity} on the given executor whenever a board is taken
+ * from it. A search that finds nothing in time ends that refill; the next take tries again. Boards
+ * larger than {@code maxCells} are never pooled, and at most {@code maxConfigs} configurations are kept.
+ */
+public class BoardPool {
+
+    private final Executor worker;
+    private final int capacity;
+    private final int maxCells;
+    private final int maxConfigs;
+    private final long budgetNanos;
+    private final Map<Key, Pool> pools = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder failedRefills = new LongAdder();
+    private final LongAdder refillNanos = new LongAdder();
+    private final LongAccumulator maxRefillNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param worker      runs the searches that refill the pools
+     * @param capacity    the number of boards kept ready per configuration
+     * @param maxCells    the largest board, in cells, that is pooled
+     * @param maxConfigs  the number of configurations that get a pool
+     * @param budgetNanos how long one search may take
+     */
+    public BoardPool(Executor worker, int capacity, int maxCells, int maxConfigs, long budgetNanos) {
+        this.worker = worker;
+        this.capacity = capacity;
+        this.maxCells = maxCells;
+        this.maxConfigs = maxConfigs;
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Takes a ready no-guess board, unplayed and safe to open at its centre cell, and starts refilling its
+     * pool.
+     *
+     * @param rows  the number of rows
+     * @param cols  the number of columns
+     * @param mines the number of mines
+     * @return a board nobody else holds, or null if none is ready and the caller has to search for one
+     */
+    public Board take(int rows, int cols, int mines) {
+        if (capacity <= 0 || (long) rows * cols > maxCells) {
+            misses.increment();
+            return null;
+        }
+        Key key = new Key(rows, cols, mines);
+        Pool pool = pools.get(key);
+        if (pool == null && pools.size() < maxConfigs) {
+            pool = pools.computeIfAbsent(key, Pool::new);
+        }
+        if (pool == null) {
+            misses.increment();
+            return null;
+        }
+
+        Board board = pool.boards.poll();
+        if (board != null) {
+            pool.size.decrementAndGet();
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        pool.refill();
+        return board;
+    }
+
+    private Board search(Key key) {
+        long start = System.nanoTime();
+        Board board = NoGuessGenerator.generate(key.rows, key.cols, key.mines, key.rows / 2, key.cols / 2,
+                ThreadLocalRandom.current().nextLong(), budgetNanos);
+        long elapsed = System.nanoTime() - start;
+        refills.increment();
+        refillNanos.add(elapsed);
+        maxRefillNanos.accumulate(elapsed);
+        if (board == null) {
+            failedRefills.increment();
+        }
+        return board;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of searches run to refill the pools, including those that found nothing.
+     */
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    /**
+     * Returns the number of refill searches that found no board within the budget.
+     */
+    public long getFailedRefills() {
+        return failedRefills.sum();
+    }
+
+    /**
+     * Returns the mean time one refill search took, in nanoseconds.
+     */
+    public long getAverageRefillNanos() {
+        long count = refills.sum();
+        return count == 0 ? 0 : refillNanos.sum() / count;
+    }
+
+    /**
+     * Returns the longest time one refill search took, in nanoseconds.
+     */
+    public long getMaxRefillNanos() {
+        return maxRefillNanos.get();
+    }
+
+    /**
+     * Returns the number of boards ready across all configurations.
+     */
+    public int getPooledCount() {
+        int total = 0;
+        for (Pool pool : pools.values()) {
+            total += pool.size.get();
+        }
+        return total;
+    }
+
+    private static final class Key {
+
+        final int rows;
+        final int cols;
+        final int mines;
+
+        Key(int rows, int cols, int mines) {
+            this.rows = rows;
+            this.cols = cols;
+            this.mines = mines;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && rows == other.rows && cols == other.cols && mines == other.mines;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rows, cols, mines);
+        }
+    }
+
+    private final class Pool implements Runnable {
+
+        final Key key;
+        final Queue<Board> boards = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean refillQueued = new AtomicBoolean();
+
+        Pool(Key key) {
+            this.key = key;
+        }
+
+        void refill() {
+            if (size.get() < capacity && refillQueued.compareAndSet(false, true)) {
+                worker.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (size.get() < capacity) {
+                    Board board = search(key);
+                    if (board == null) {
+                        return;
+                    }
+                    boards.offer(board);
+                    size.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                Logger.warning("No-guess board search failed: " + e.getMessage());
+            } finally {
+                refillQueued.set(false);
+            }
+        }
+    }
+}
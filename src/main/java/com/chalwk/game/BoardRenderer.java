@@ -0,0 +1,70 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import java.util.List;
+
+/**
+ * Turns a {@link Board} into the text shown in its embed.
+ * <p>
+ * Renderers write into a buffer owned by the caller, which is reused from one render to the next, and keep
+ * no state of their own, so one instance serves every game. Boards that no text encoding fits are drawn
+ * by {@link BoardImageRenderer} instead.
+ */
+public interface BoardRenderer {
+
+    /**
+     * The full-size text grid with row and column numbers.
+     */
+    BoardRenderer GRID = new TextGridRenderer();
+    /**
+     * One line per row with runs of identical cells collapsed.
+     */
+    BoardRenderer RUN_LENGTH = new RunLengthRenderer();
+    /**
+     * The classic emoji board with every hidden cell behind a spoiler tag.
+     */
+    BoardRenderer SPOILER = new SpoilerRenderer();
+
+    /**
+     * Picks the first renderer in order of preference whose output fits, and leaves its output in
+     * {@code out}. The grid is preferred, then the run-length encoding; classic games try spoilers first.
+     * A renderer whose {@linkplain #minimumLength(Board) minimum length} is already over the limit is
+     * skipped without rendering.
+     *
+     * @param board   the board to render
+     * @param classic whether the game was started in classic mode
+     * @param limit   the largest number of characters the output may have
+     * @param out     the buffer to render into; cleared first
+     * @return the renderer used, or null if none fits and {@code out} holds nothing useful
+     */
+    static BoardRenderer select(Board board, boolean classic, int limit, StringBuilder out) {
+        List<BoardRenderer> candidates = classic ? List.of(SPOILER, GRID, RUN_LENGTH) : List.of(GRID, RUN_LENGTH);
+        for (BoardRenderer renderer : candidates) {
+            if (renderer.minimumLength(board) > limit) {
+                continue;
+            }
+            out.setLength(0);
+            renderer.render(board, out);
+            if (out.length() <= limit) {
+                return renderer;
+            }
+        }
+        out.setLength(0);
+        return null;
+    }
+
+    /**
+     * Returns a length the output for this board cannot be shorter than, computed without rendering. It
+     * is exact for encodings that depend only on the board's size.
+     */
+    int minimumLength(Board board);
+
+    /**
+     * Appends the board's text to a buffer.
+     *
+     * @param board the board to render
+     * @param out   the buffer to append to
+     */
+    void render(Board board, StringBuilder out);
+}
@@ -0,0 +1,88 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of a {@link Board}.
+ * <p>
+ * Layout, big-endian: rows, columns and mine count (int), seed (long), state (byte), a flags byte (mines
+ * placed, mines revealed), the revealed-cell and move counts (int), then three row-major bitsets of
+ * {@code ceil(rows * cols / 64)} longs each, holding the mine, revealed and flagged cells. Hints are not
+ * stored; they are recomputed from the mine layer as tiles are loaded.
+ */
+final class BoardSnapshot {
+
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 1 + 1 + 4 + 4;
+    private static final int MINES_PLACED = 1;
+    private static final int MINES_REVEALED = 2;
+    private static final BoardState[] STATES = BoardState.values();
+
+    private BoardSnapshot() {
+    }
+
+    private static int words(int rows, int cols) {
+        return (int) (((long) rows * cols + 63) >>> 6);
+    }
+
+    /**
+     * Returns the number of bytes {@link #write(Board, ByteBuffer)} produces for the board.
+     */
+    static int size(Board board) {
+        return HEADER_BYTES + 3 * 8 * words(board.getRows(), board.getCols());
+    }
+
+    static void write(Board board, ByteBuffer out) {
+        int words = words(board.getRows(), board.getCols());
+        long[] mines = new long[words];
+        long[] revealed = new long[words];
+        long[] flagged = new long[words];
+        board.getStore().exportBits(mines, revealed, flagged);
+
+        out.putInt(board.getRows());
+        out.putInt(board.getCols());
+        out.putInt(board.getMineCount());
+        out.putLong(board.getSeed());
+        out.put((byte) board.getState().ordinal());
+        int flags = (board.areMinesPlaced() ? MINES_PLACED : 0)
+                | (board.areMinesRevealed() ? MINES_REVEALED : 0);
+        out.put((byte) flags);
+        out.putInt(board.getRevealedCount());
+        out.putInt(board.getMoveCount());
+        out.asLongBuffer().put(mines).put(revealed).put(flagged);
+        out.position(out.position() + 3 * 8 * words);
+    }
+
+    /**
+     * Reads a board written by {@link #write(Board, ByteBuffer)}.
+     *
+     * @throws IllegalArgumentException if the data is not a valid board
+     */
+    static Board read(ByteBuffer in) {
+        int rows = in.getInt();
+        int cols = in.getInt();
+        int mineCount = in.getInt();
+        long seed = in.getLong();
+        int state = in.get();
+        int flags = in.get();
+        int revealedCount = in.getInt();
+        int moves = in.getInt();
+        if (rows <= 0 || cols <= 0 || mineCount < 0 || state < 0 || state >= STATES.length) {
+            throw new IllegalArgumentException("Corrupt board header");
+        }
+
+        int words = words(rows, cols);
+        long[] mines = new long[words];
+        long[] revealed = new long[words];
+        long[] flagged = new long[words];
+        in.asLongBuffer().get(mines).get(revealed).get(flagged);
+        in.position(in.position() + 3 * 8 * words);
+
+        Board board = Board.withMines(rows, cols, mineCount, seed);
+        board.getStore().importBits(mines, revealed, flagged);
+        board.restore(STATES[state], revealedCount, (flags & MINES_PLACED) != 0,
+                (flags & MINES_REVEALED) != 0, moves);
+        return board;
+    }
+}
@@ -0,0 +1,76 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+/**
+ * Encodes and decodes the component IDs of the board buttons.
+ * <p>
+ * An ID is {@code ms:<game>:<action><value>}, with the game ID and value in base 36: {@code c} clicks the
+ * cell with index {@code row * cols + col}, {@code p} pans the view in a direction and {@code m} toggles
+ * between revealing and flagging. A cell button on a 1000x1000 board is under 25 characters, well within
+ * Discord's 100. The game ID lets a click be matched to the clicking player's game with one lookup, and
+ * rejected if it comes from an older game's message.
+ */
+public final class ButtonCodec {
+
+    public static final String PREFIX = "ms";
+
+    public static final char CELL = 'c';
+    public static final char PAN = 'p';
+    public static final char MODE = 'm';
+
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    private ButtonCodec() {
+    }
+
+    public static String encode(long gameID, char action, int value) {
+        return PREFIX + ':' + Long.toString(gameID, Character.MAX_RADIX) + ':' + action
+                + Integer.toString(value, Character.MAX_RADIX);
+    }
+
+    /**
+     * Decodes a component ID.
+     *
+     * @param id the component ID
+     * @return the click, or null if the ID is not a valid board button
+     */
+    public static Click decode(String id) {
+        int first = id.indexOf(':');
+        int second = id.indexOf(':', first + 1);
+        if (first < 0 || second < 0 || second + 1 >= id.length() || !PREFIX.equals(id.substring(0, first))) {
+            return null;
+        }
+        try {
+            long gameID = Long.parseLong(id, first + 1, second, Character.MAX_RADIX);
+            char action = id.charAt(second + 1);
+            int value = second + 2 < id.length()
+                    ? Integer.parseInt(id, second + 2, id.length(), Character.MAX_RADIX) : 0;
+            if (action != CELL && action != PAN && action != MODE) {
+                return null;
+            }
+            return new Click(gameID, action, value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A decoded button click.
+     */
+    public static final class Click {
+
+        public final long gameID;
+        public final char action;
+        public final int value;
+
+        Click(long gameID, char action, int value) {
+            this.gameID = gameID;
+            this.action = action;
+            this.value = value;
+        }
+    }
+}
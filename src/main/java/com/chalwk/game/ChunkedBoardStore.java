@@ -0,0 +1,290 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import java.util.Arrays;
+
+/**
+ * Cell storage for a {@link Board}, split into square tiles that are allocated on first write.
+ * <p>
+ * Two layers are kept per tile. The mine layer is a bitset (one bit per cell) and the cell layer is one
+ * byte per cell holding the hint in the low nibble plus the flag and revealed bits. A tile that has never
+ * been written reads as hidden, unflagged and mine-free, so a large board only pays for the tiles that
+ * hold mines and, at a byte per cell, for the tiles the player has actually touched.
+ * <p>
+ * Tiles are {@code 2^shift} cells on a side, so locating a cell is two shifts and a mask with no division.
+ * Small boards use a tile just large enough to cover them; everything else uses 32x32 tiles.
+ */
+final class ChunkedBoardStore {
+
+    static final int HINT_MASK = 0x0F;
+    static final int FLAGGED = 0x20;
+    static final int REVEALED = 0x40;
+
+    private static final int MAX_TILE_SHIFT = 5;
+
+    private final int rows;
+    private final int cols;
+    private final int shift;
+    private final int mask;
+    private final int tileCols;
+    private final int tileArea;
+    private final byte[][] cellTiles;
+    private final long[][] mineTiles;
+    private int allocatedCellTiles;
+    private int allocatedMineTiles;
+    private final int[] sumAbove;
+    private final int[] sumCurrent;
+    private final int[] sumBelow;
+
+    ChunkedBoardStore(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int shift = 0;
+        while (shift < MAX_TILE_SHIFT && (1 << shift) < Math.max(rows, cols)) {
+            shift++;
+        }
+        this.shift = shift;
+        this.mask = (1 << shift) - 1;
+        this.tileArea = 1 << (shift << 1);
+        this.tileCols = (cols + mask) >> shift;
+        int tileRows = (rows + mask) >> shift;
+        this.cellTiles = new byte[tileRows * tileCols][];
+        this.mineTiles = new long[tileRows * tileCols][];
+        this.sumAbove = new int[1 << shift];
+        this.sumCurrent = new int[1 << shift];
+        this.sumBelow = new int[1 << shift];
+    }
+
+    private int tileIndex(int row, int col) {
+        return (row >> shift) * tileCols + (col >> shift);
+    }
+
+    private int offset(int row, int col) {
+        return ((row & mask) << shift) | (col & mask);
+    }
+
+    /**
+     * Returns the packed cell byte (hint, flag and revealed bits), or 0 for a tile that was never written.
+     */
+    int get(int row, int col) {
+        byte[] tile = cellTiles[tileIndex(row, col)];
+        return tile == null ? 0 : tile[offset(row, col)];
+    }
+
+    /**
+     * Returns the packed cell byte, allocating the tile (and computing its hints) if needed.
+     */
+    int touch(int row, int col) {
+        return cellTile(row, col)[offset(row, col)];
+    }
+
+    int hint(int row, int col) {
+        byte[] tile = cellTiles[tileIndex(row, col)];
+        return tile == null ? countAdjacentMines(row, col) : tile[offset(row, col)] & HINT_MASK;
+    }
+
+    void set(int row, int col, int value) {
+        cellTile(row, col)[offset(row, col)] = (byte) value;
+    }
+
+    boolean isMine(int row, int col) {
+        long[] tile = mineTiles[tileIndex(row, col)];
+        if (tile == null) {
+            return false;
+        }
+        int bit = offset(row, col);
+        return (tile[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    void setMine(int row, int col) {
+        int index = tileIndex(row, col);
+        long[] tile = mineTiles[index];
+        if (tile == null) {
+            tile = mineTiles[index] = new long[Math.max(tileArea >>> 6, 1)];
+            allocatedMineTiles++;
+        }
+        int bit = offset(row, col);
+        tile[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Adds one to the hint of a cell whose tile is already allocated. Unallocated tiles pick the new mine
+     * up from the mine layer when they are first touched.
+     */
+    void incrementHint(int row, int col) {
+        byte[] tile = cellTiles[tileIndex(row, col)];
+        if (tile != null) {
+            tile[offset(row, col)]++;
+        }
+    }
+
+    boolean isCellTileAllocated(int row, int col) {
+        return cellTiles[tileIndex(row, col)] != null;
+    }
+
+    int countAdjacentMines(int row, int col) {
+        int count = 0;
+        int rowEnd = Math.min(row + 1, rows - 1);
+        int colEnd = Math.min(col + 1, cols - 1);
+        for (int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+            for (int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+                if (isMine(i, j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Recomputes the hint nibble of every non-mine cell in the allocated cell tiles.
+     */
+    void recalculateHints() {
+        int size = 1 << shift;
+        for (int t = 0; t < cellTiles.length; t++) {
+            if (cellTiles[t] != null) {
+                fillHints(cellTiles[t], (t / tileCols) << shift, (t % tileCols) << shift, size);
+            }
+        }
+    }
+
+    private byte[] cellTile(int row, int col) {
+        int index = tileIndex(row, col);
+        byte[] tile = cellTiles[index];
+        if (tile == null) {
+            tile = cellTiles[index] = new byte[tileArea];
+            allocatedCellTiles++;
+            fillHints(tile, row & ~mask, col & ~mask, 1 << shift);
+        }
+        return tile;
+    }
+
+    /**
+     * Writes the hint of every non-mine cell in a tile in one pass over the mine layer.
+     * <p>
+     * The 3x3 neighbourhood count is separable: each row's mines are first summed over a sliding window
+     * of three columns, and a cell's hint is the sum of those row sums for the row above, its own row and
+     * the row below. Every mine bit in and around the tile is therefore read once per row pass instead of
+     * nine times, and the work is linear in the tile area whatever the mine density.
+     */
+    private void fillHints(byte[] tile, int rowOrigin, int colOrigin, int size) {
+        int rowEnd = Math.min(rowOrigin + size, rows);
+        int colEnd = Math.min(colOrigin + size, cols);
+        int[] above = sumAbove;
+        int[] current = sumCurrent;
+        int[] below = sumBelow;
+        rowSums(rowOrigin - 1, colOrigin, colEnd, above);
+        rowSums(rowOrigin, colOrigin, colEnd, current);
+
+        for (int i = rowOrigin; i < rowEnd; i++) {
+            rowSums(i + 1, colOrigin, colEnd, below);
+            for (int j = colOrigin, k = 0; j < colEnd; j++, k++) {
+                if (!isMine(i, j)) {
+                    int at = offset(i, j);
+                    tile[at] = (byte) ((tile[at] & ~HINT_MASK) | (above[k] + current[k] + below[k]));
+                }
+            }
+            int[] recycled = above;
+            above = current;
+            current = below;
+            below = recycled;
+        }
+    }
+
+    /**
+     * Stores, for each column of {@code [colStart, colEnd)}, the number of mines in that column and its
+     * two horizontal neighbours on the given row. Rows outside the board sum to zero.
+     */
+    private void rowSums(int row, int colStart, int colEnd, int[] sums) {
+        if (row < 0 || row >= rows) {
+            Arrays.fill(sums, 0);
+            return;
+        }
+        int left = colStart > 0 && isMine(row, colStart - 1) ? 1 : 0;
+        int middle = isMine(row, colStart) ? 1 : 0;
+        for (int j = colStart, k = 0; j < colEnd; j++, k++) {
+            int right = j + 1 < cols && isMine(row, j + 1) ? 1 : 0;
+            sums[k] = left + middle + right;
+            left = middle;
+            middle = right;
+        }
+    }
+
+    /**
+     * Copies the mine, revealed and flagged states into three row-major bitsets of {@code rows * cols} bits.
+     * Only allocated tiles are visited; the bitsets must be zeroed by the caller.
+     */
+    void exportBits(long[] mines, long[] revealed, long[] flagged) {
+        int size = 1 << shift;
+        for (int t = 0; t < cellTiles.length; t++) {
+            long[] mineTile = mineTiles[t];
+            byte[] cellTile = cellTiles[t];
+            if (mineTile == null && cellTile == null) {
+                continue;
+            }
+            int rowOrigin = (t / tileCols) << shift;
+            int colOrigin = (t % tileCols) << shift;
+            int rowEnd = Math.min(rowOrigin + size, rows);
+            int colEnd = Math.min(colOrigin + size, cols);
+            for (int i = rowOrigin; i < rowEnd; i++) {
+                for (int j = colOrigin; j < colEnd; j++) {
+                    int index = i * cols + j;
+                    int at = offset(i, j);
+                    if (mineTile != null && (mineTile[at >>> 6] & (1L << at)) != 0) {
+                        mines[index >>> 6] |= 1L << index;
+                    }
+                    if (cellTile != null) {
+                        if ((cellTile[at] & REVEALED) != 0) {
+                            revealed[index >>> 6] |= 1L << index;
+                        }
+                        if ((cellTile[at] & FLAGGED) != 0) {
+                            flagged[index >>> 6] |= 1L << index;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads states written by {@link #exportBits(long[], long[], long[])} into an empty store. Mines are set
+     * first, so the tiles allocated for revealed and flagged cells compute their hints from the final mine
+     * layer.
+     */
+    void importBits(long[] mines, long[] revealed, long[] flagged) {
+        for (int w = 0; w < mines.length; w++) {
+            for (long word = mines[w]; word != 0; word &= word - 1) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                setMine(index / cols, index % cols);
+            }
+        }
+        for (int w = 0; w < revealed.length; w++) {
+            for (long word = revealed[w] | flagged[w]; word != 0; word &= word - 1) {
+                int bit = Long.numberOfTrailingZeros(word);
+                int index = (w << 6) + bit;
+                int row = index / cols;
+                int col = index % cols;
+                int cell = touch(row, col);
+                if ((revealed[w] & (1L << bit)) != 0) {
+                    cell |= REVEALED;
+                }
+                if ((flagged[w] & (1L << bit)) != 0) {
+                    cell |= FLAGGED;
+                }
+                set(row, col, cell);
+            }
+        }
+    }
+
+    /**
+     * Approximates the heap used by allocated tiles and the tile directories, in bytes.
+     */
+    long footprintBytes() {
+        long directories = 2L * (16 + 4L * cellTiles.length);
+        long cells = allocatedCellTiles * (16L + tileArea);
+        long mines = allocatedMineTiles * (16L + 8L * Math.max(tileArea >>> 6, 1));
+        return directories + cells + mines;
+    }
+}
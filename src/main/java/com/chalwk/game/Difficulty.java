@@ -0,0 +1,53 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+/**
+ * Difficulty presets for {@code /start}, each a share of the board's cells that hold mines.
+ */
+public enum Difficulty {
+
+    EASY(0.10),
+    MEDIUM(Board.MINE_DENSITY),
+    HARD(0.20),
+    EXPERT(0.25);
+
+    private final double density;
+
+    Difficulty(double density) {
+        this.density = density;
+    }
+
+    /**
+     * Looks a preset up by name, ignoring case.
+     *
+     * @param name the preset name
+     * @return the preset, or null if there is none with that name
+     */
+    public static Difficulty fromName(String name) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.name().equalsIgnoreCase(name)) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * Returns the number of mines this preset puts on a board of the given size.
+     */
+    public int minesFor(int rows, int cols) {
+        return Board.minesFor(rows, cols, density);
+    }
+
+    /**
+     * Returns the name shown to players, e.g. {@code "easy"}.
+     */
+    public String getLabel() {
+        return name().toLowerCase();
+    }
+}
@@ -2,118 +2,499 @@
    See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
 package com.chalwk.game;
 
+import com.chalwk.CommandManager.CommandStats;
 import com.chalwk.util.GameConfig;
 import com.chalwk.util.settings;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.entities.WebhookClient;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static com.chalwk.bot.BotInitializer.getShardManager;
 
 public class Game {
 
+    private static final String BOARD_IMAGE = "board.png";
+    /**
+     * The size of the window of cells shown as buttons. Discord allows five rows of five buttons, and the
+     * last row holds the navigation and mode buttons.
+     */
+    static final int VIEW_ROWS = 4;
+    static final int VIEW_COLS = 5;
+    private static final String EMPTY_LABEL = "\u200B";
+    private static final int CLASSIC_FLAG = 1;
+    private static final int NO_GUESS_FLAG = 2;
+
     public final Board board;
+    private final long gameID;
     private final GameManager gameManager;
     private final GameConfig config;
+    private final GameMailbox mailbox;
+    private final RenderScheduler renderScheduler;
+    private final boolean guessFree;
     private Date startTime;
-    private TimerTask gameEndTask;
-    private String embedID;
+    private long channelID;
+    private long applicationID;
+    private String interactionToken;
+    private GameScheduler.Timeout gameEndTask;
+    private volatile WebhookClient<Message> boardHook;
+    private BoardState displayState = BoardState.ONGOING;
+    private int version;
+    private int snapshotVersion = -1;
+    private volatile byte[] snapshot;
+    private final StringBuilder renderBuffer = new StringBuilder();
+    private BoardImageRenderer imageRenderer;
+    private int viewRow;
+    private int viewCol;
+    private boolean flagMode;
 
     public Game(GameConfig config, GameManager gameManager, SlashCommandInteractionEvent event) {
+        this(config, gameManager, null, event);
+    }
+
+    /**
+     * Starts a game on a board dealt by {@link com.chalwk.game.solver.NoGuessGenerator}, or on an ordinary
+     * board if none was found in time. If the {@code /start} interaction was deferred while the board was
+     * searched for, the deferred reply becomes the board message.
+     *
+     * @param dealt the board that needs no guessing from the centre cell, or null
+     */
+    Game(GameConfig config, GameManager gameManager, Board dealt, SlashCommandInteractionEvent event) {
         this.config = config;
         this.gameManager = gameManager;
-        this.board = new Board(config.rows, config.cols);
+        this.mailbox = new GameMailbox(gameManager.getExecutor());
+        this.renderScheduler = new RenderScheduler(gameManager.getScheduler(), mailbox, this::renderBoard);
+        this.guessFree = dealt != null;
+        this.board = guessFree ? dealt
+                : Board.withMines(config.rows, config.cols, config.mines, ThreadLocalRandom.current().nextLong());
+        this.gameID = gameManager.nextGameID();
+        MoveJournal journal = gameManager.getJournal();
+        if (journal != null) {
+            journal.appendStart(gameID, config.player.getIdLong(), board);
+            board.setJournal(journal, gameID);
+        }
+        if (config.classic || guessFree) {
+            // spoilers show what is under each cell, so the mines have to be down before the first render;
+            // a no-guess board is only solvable from the cell it was generated around
+            board.revealCell(config.rows / 2, config.cols / 2);
+        }
         startGame(event);
     }
 
-    public String getEmbedID() {
-        return this.embedID;
+    /**
+     * Recreates a game read back from a snapshot. No message is sent; the board message of the original
+     * {@code /start} interaction keeps being edited through its token. Call {@link #resume()} once the
+     * game is registered.
+     */
+    Game(long gameID, GameConfig config, GameManager gameManager, Board board, long channelID, long startMillis,
+         long applicationID, String interactionToken) {
+        this.gameID = gameID;
+        this.config = config;
+        this.gameManager = gameManager;
+        this.mailbox = new GameMailbox(gameManager.getExecutor());
+        this.renderScheduler = new RenderScheduler(gameManager.getScheduler(), mailbox, this::renderBoard);
+        this.board = board;
+        this.guessFree = config.noGuess;
+        this.channelID = channelID;
+        this.startTime = new Date(startMillis);
+        this.applicationID = applicationID;
+        this.interactionToken = interactionToken;
+    }
+
+    /**
+     * Reads a game written by {@link #writeSnapshot()}.
+     *
+     * @throws IllegalArgumentException if the data is not a valid game
+     */
+    static Game readSnapshot(ByteBuffer in, GameManager gameManager) {
+        long gameID = in.getLong();
+        long playerID = in.getLong();
+        long channelID = in.getLong();
+        long startMillis = in.getLong();
+        long applicationID = in.getLong();
+        byte[] token = new byte[in.getShort() & 0xFFFF];
+        in.get(token);
+        int flags = in.get();
+        Board board = BoardSnapshot.read(in);
+        GameConfig config = new GameConfig(UserSnowflake.fromId(playerID), board.getRows(), board.getCols(),
+                board.getMineCount(), (flags & CLASSIC_FLAG) != 0, (flags & NO_GUESS_FLAG) != 0);
+        return new Game(gameID, config, gameManager, board, channelID, startMillis, applicationID,
+                new String(token, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Queues work on this game. Tasks run one at a time in the order they were posted, off the gateway
+     * thread, so they may touch the board without further locking. Work posted by a command handler is
+     * counted against that command.
+     *
+     * @param task the work to run
+     */
+    public void post(Runnable task) {
+        mailbox.post(CommandStats.track(task));
+    }
+
+    /**
+     * Returns true while this game is still registered for its player.
+     */
+    public boolean isActive() {
+        return gameManager.getGame(config.player) == this;
+    }
+
+    /**
+     * Returns the webhook of the {@code /start} interaction whose reply holds the board. For a game
+     * restored from a snapshot it is rebuilt from the interaction token on first use.
+     */
+    public WebhookClient<Message> getBoardHook() {
+        WebhookClient<Message> hook = boardHook;
+        if (hook == null) {
+            hook = boardHook = WebhookClient.createClient(getShardManager().getShards().get(0),
+                    Long.toUnsignedString(applicationID), interactionToken);
+        }
+        return hook;
+    }
+
+    /**
+     * Returns the player's ID.
+     */
+    public long getPlayerID() {
+        return config.player.getIdLong();
+    }
+
+    /**
+     * Returns when the game was started, in epoch milliseconds.
+     */
+    public long getStartMillis() {
+        return startTime.getTime();
+    }
+
+    public long getGameID() {
+        return gameID;
+    }
+
+    /**
+     * Reattaches a restored game to the move journal and schedules its timeout for whatever is left of
+     * its time limit.
+     */
+    void resume() {
+        MoveJournal journal = gameManager.getJournal();
+        if (journal != null) {
+            board.setJournal(journal, gameID);
+        }
+        scheduleGameEndTask();
+    }
+
+    /**
+     * Returns the last snapshot taken by {@link #captureSnapshot()}, or null if there is none yet.
+     */
+    byte[] getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Re-encodes the snapshot if the board changed since the last capture. Must run on the mailbox.
+     */
+    void captureSnapshot() {
+        if (snapshotVersion != version || snapshot == null) {
+            snapshot = writeSnapshot();
+            snapshotVersion = version;
+        }
     }
 
-    private void setEmbedID(String embedID) {
-        this.embedID = embedID;
+    /**
+     * Encodes the game as its ID, player, channel, start time, interaction token and mode flags followed
+     * by the board.
+     */
+    private byte[] writeSnapshot() {
+        byte[] token = interactionToken.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(8 * 5 + 2 + token.length + 1 + BoardSnapshot.size(board));
+        out.putLong(gameID);
+        out.putLong(config.player.getIdLong());
+        out.putLong(channelID);
+        out.putLong(startTime.getTime());
+        out.putLong(applicationID);
+        out.putShort((short) token.length);
+        out.put(token);
+        out.put((byte) ((config.classic ? CLASSIC_FLAG : 0) | (guessFree ? NO_GUESS_FLAG : 0)));
+        BoardSnapshot.write(board, out);
+        return out.array();
     }
 
+    /**
+     * Acknowledges a move and schedules the board message to be edited in place.
+     * <p>
+     * The board is edited through the hook of the {@code /start} interaction, which stays valid for 15
+     * minutes, so no message ID has to be looked up. Edits are coalesced by a {@link RenderScheduler}, so
+     * several quick moves produce one edit showing the latest board; a finished game is drawn at once.
+     * A slash command cannot be answered by editing another message, so the move itself gets a one-line
+     * ephemeral reply, and the board edit is the only other request; button clicks are answered by the
+     * edit itself, see {@link #click(ButtonCodec.Click, ButtonInteractionEvent)}.
+     *
+     * @param state the state to show
+     * @param event the move that changed the board
+     */
     public void updateEmbed(BoardState state, SlashCommandInteractionEvent event) {
+        String reply = switch (state) {
+            case ONGOING -> "## Board updated.";
+            case WON -> "## CONGRATULATIONS! You won!";
+            case LOST -> "## GAME OVER! You hit a mine!";
+        };
+        event.reply(reply).setEphemeral(true).queue();
+        updateBoard(state);
+    }
 
-        EmbedBuilder embed = createEmbedBuilder();
+    /**
+     * Applies a click on one of the board buttons and answers the click by editing the board message, so
+     * the acknowledgement and the redraw are one request. Any coalesced redraw still waiting is folded
+     * into it. Must run on the mailbox.
+     *
+     * @param click the decoded button
+     * @param event the click, not yet acknowledged
+     */
+    public void click(ButtonCodec.Click click, ButtonInteractionEvent event) {
+        Runnable reply = () -> event.editMessage(buildBoardMessage()).queue();
+        switch (click.action) {
+            case ButtonCodec.CELL -> {
+                int row = click.value / board.getCols();
+                int col = click.value % board.getCols();
+                if (row >= board.getRows()) {
+                    event.deferEdit().queue();
+                    return;
+                }
+                if (flagMode && !board.isRevealed(row, col)) {
+                    board.flagCell(row, col, !board.isFlagged(row, col));
+                } else {
+                    // a revealed number chords in either mode
+                    board.revealCells(new int[]{click.value}, 1);
+                }
+                displayState = board.getState();
+                version++;
+                if (displayState != BoardState.ONGOING) {
+                    endGame(config.player);
+                }
+                renderScheduler.flush(reply);
+            }
+            case ButtonCodec.PAN -> {
+                pan(click.value);
+                renderScheduler.flush(reply);
+            }
+            case ButtonCodec.MODE -> {
+                flagMode = !flagMode;
+                renderScheduler.flush(reply);
+            }
+            default -> event.deferEdit().queue();
+        }
+    }
+
+    private void pan(int direction) {
+        int lastRow = Math.max(board.getRows() - VIEW_ROWS, 0);
+        int lastCol = Math.max(board.getCols() - VIEW_COLS, 0);
+        switch (direction) {
+            case ButtonCodec.UP -> viewRow = Math.max(viewRow - VIEW_ROWS, 0);
+            case ButtonCodec.DOWN -> viewRow = Math.min(viewRow + VIEW_ROWS, lastRow);
+            case ButtonCodec.LEFT -> viewCol = Math.max(viewCol - VIEW_COLS, 0);
+            case ButtonCodec.RIGHT -> viewCol = Math.min(viewCol + VIEW_COLS, lastCol);
+            default -> {
+            }
+        }
+    }
+
+    private void updateBoard(BoardState state) {
+        displayState = state;
+        version++;
 
         if (state == BoardState.ONGOING) {
+            renderScheduler.request();
+        } else {
+            endGame(config.player);
+            renderScheduler.flush();
+        }
+    }
+
+    private void renderBoard() {
+        getBoardHook().editMessageById("@original", buildBoardMessage()).queue();
+    }
+
+    /**
+     * Builds the edit that redraws the board message: the embed, the buttons and, for an image board,
+     * the freshly rendered image.
+     */
+    private MessageEditData buildBoardMessage() {
+        EmbedBuilder embed = createEmbedBuilder();
+
+        if (displayState == BoardState.ONGOING) {
             embed.setColor(Color.BLUE);
-        } else if (state == BoardState.WON) {
+        } else if (displayState == BoardState.WON) {
             embed.setFooter("CONGRATULATIONS! You won!").setColor(Color.GREEN);
-            endGame(config.player);
-        } else if (state == BoardState.LOST) {
+        } else if (displayState == BoardState.LOST) {
             embed.setFooter("GAME OVER! You hit a mine!").setColor(Color.RED);
-            endGame(config.player);
         }
 
-        event.getChannel().deleteMessageById(getEmbedID()).queue();
-        event.replyEmbeds(embed.build()).queue();
-        setMessageID(event);
+        MessageEditBuilder message = new MessageEditBuilder().setEmbeds(embed.build()).setComponents(buildButtons());
+        if (imageRenderer != null) {
+            message.setFiles(FileUpload.fromData(imageRenderer.render(), BOARD_IMAGE));
+        }
+        return message.build();
+    }
+
+    /**
+     * Builds the button grid for the current window of cells plus a row of navigation and mode buttons.
+     * A finished game has no buttons.
+     */
+    private List<ActionRow> buildButtons() {
+        if (displayState != BoardState.ONGOING) {
+            return List.of();
+        }
+        int lastRow = Math.min(viewRow + VIEW_ROWS, board.getRows());
+        int lastCol = Math.min(viewCol + VIEW_COLS, board.getCols());
+        List<ActionRow> rows = new ArrayList<>(VIEW_ROWS + 1);
+        for (int row = viewRow; row < lastRow; row++) {
+            List<Button> buttons = new ArrayList<>(VIEW_COLS);
+            for (int col = viewCol; col < lastCol; col++) {
+                buttons.add(cellButton(row, col));
+            }
+            rows.add(ActionRow.of(buttons));
+        }
+
+        String mode = (flagMode ? "Flagging" : "Revealing") + " | rows " + viewRow + "-" + (lastRow - 1)
+                + ", cols " + viewCol + "-" + (lastCol - 1);
+        rows.add(ActionRow.of(
+                panButton(ButtonCodec.LEFT, "\u25C0", viewCol == 0),
+                panButton(ButtonCodec.UP, "\u25B2", viewRow == 0),
+                panButton(ButtonCodec.DOWN, "\u25BC", lastRow == board.getRows()),
+                panButton(ButtonCodec.RIGHT, "\u25B6", lastCol == board.getCols()),
+                flagMode ? Button.danger(ButtonCodec.encode(gameID, ButtonCodec.MODE, 0), mode)
+                        : Button.primary(ButtonCodec.encode(gameID, ButtonCodec.MODE, 0), mode)));
+        return rows;
+    }
+
+    private Button panButton(int direction, String arrow, boolean disabled) {
+        return Button.secondary(ButtonCodec.encode(gameID, ButtonCodec.PAN, direction), arrow).withDisabled(disabled);
+    }
+
+    private Button cellButton(int row, int col) {
+        String id = ButtonCodec.encode(gameID, ButtonCodec.CELL, row * board.getCols() + col);
+        if (board.isRevealed(row, col)) {
+            if (board.isMine(row, col)) {
+                return Button.danger(id, Emoji.fromUnicode("\uD83D\uDCA3")).asDisabled();
+            }
+            int hint = board.getHint(row, col);
+            // numbers stay clickable to chord
+            return hint == 0 ? Button.secondary(id, EMPTY_LABEL).asDisabled() : Button.success(id, String.valueOf(hint));
+        }
+        if (board.isFlagged(row, col)) {
+            return Button.danger(id, Emoji.fromUnicode("\uD83D\uDEA9"));
+        }
+        return Button.secondary(id, EMPTY_LABEL);
+    }
+
+    /**
+     * Renders the board into {@code renderBuffer} with the cheapest text encoding that fits an embed
+     * field. Once no text encoding fits, the game switches to an attached image for good, so the message
+     * does not flip between the two as the board changes.
+     *
+     * @return true if the board is to be drawn as an image
+     */
+    private boolean usesImage() {
+        if (imageRenderer == null
+                && BoardRenderer.select(board, config.classic, MessageEmbed.VALUE_MAX_LENGTH, renderBuffer) == null) {
+            imageRenderer = new BoardImageRenderer(board);
+        }
+        return imageRenderer != null;
     }
 
     private EmbedBuilder createEmbedBuilder() {
-        return new EmbedBuilder()
+        EmbedBuilder embed = new EmbedBuilder()
                 .setTitle("\uD83D\uDCA3\uD83D\uDCA5 MINESWEEPER \uD83D\uDCA5\uD83D\uDCA3")
-                .setDescription("Game started by " + this.config.player.getAsMention())
-                .addField("Board:", this.board.buildBoardString(), false)
-                .setFooter("""
+                .setDescription("Game started by " + this.config.player.getAsMention() + "\n" + describeMines());
+        if (usesImage()) {
+            // a board too large for one image is shown around the cells under the buttons
+            imageRenderer.follow(viewRow, viewCol, VIEW_ROWS, VIEW_COLS);
+            embed.setImage("attachment://" + BOARD_IMAGE);
+            if (imageRenderer.isViewport()) {
+                int row = imageRenderer.getOriginRow();
+                int col = imageRenderer.getOriginCol();
+                embed.appendDescription("\nShowing rows " + row + "-" + (row + imageRenderer.getViewRows() - 1)
+                        + ", cols " + col + "-" + (col + imageRenderer.getViewCols() - 1)
+                        + "; the arrow buttons move the view.");
+            }
+        } else {
+            embed.addField("Board:", renderBuffer.toString(), false);
+        }
+        return embed.setFooter("""
                         Commands:
                         - /reveal <row> <col>
                         - /flag <row> <col>
+                        - or click the buttons below
                         """).setColor(Color.BLUE);
     }
 
+    private String describeMines() {
+        String mines = "Mines: **" + board.getMineCount() + "**";
+        if (config.difficulty != null) {
+            mines += " (" + config.difficulty.getLabel() + ")";
+        }
+        return guessFree ? mines + "\nNo guessing needed from the opened cell." : mines;
+    }
+
     public void startGame(SlashCommandInteractionEvent event) {
         this.startTime = new Date();
+        this.channelID = event.getChannel().getIdLong();
+        this.applicationID = event.getJDA().getSelfUser().getApplicationIdLong();
+        this.interactionToken = event.getToken();
 
-        EmbedBuilder embed = createEmbedBuilder();
-        event.replyEmbeds(embed.build()).queue();
+        if (event.isAcknowledged()) {
+            event.getHook().editOriginal(buildBoardMessage()).queue();
+        } else {
+            EmbedBuilder embed = createEmbedBuilder();
+            if (imageRenderer == null) {
+                event.replyEmbeds(embed.build()).setComponents(buildButtons()).queue();
+            } else {
+                event.replyEmbeds(embed.build()).setComponents(buildButtons())
+                        .addFiles(FileUpload.fromData(imageRenderer.render(), BOARD_IMAGE)).queue();
+            }
+        }
 
-        setMessageID(event);
+        // the hook buffers edits until the reply above has been acknowledged
+        this.boardHook = event.getHook();
         scheduleGameEndTask();
     }
 
-    public void endGame(User player) {
+    public void endGame(UserSnowflake player) {
         cancelGameEndTask();
-        gameManager.removeGame(player);
-    }
-
-    private void setMessageID(SlashCommandInteractionEvent event) {
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                setEmbedID(event.getChannel().getLatestMessageId());
-            }
-        }, 500);
+        gameManager.removeGame(player, this);
     }
 
     private void scheduleGameEndTask() {
-        if (gameEndTask != null) {
-            gameEndTask.cancel();
-        }
-        gameEndTask = new TimerTask() {
-            @Override
-            public void run() {
-                if (isTimeUp()) {
-                    this.cancel();
-                    String channelID = GameManager.getChannelID();
-                    TextChannel channel = getShardManager().getTextChannelById(channelID);
-                    channel.sendMessage("Times up! Game has ended").queue();
-                    gameManager.removeGame(config.player);
-                }
+        cancelGameEndTask();
+        long remaining = settings.getDefaultTimeLimit() * 1000L - (System.currentTimeMillis() - startTime.getTime());
+        gameEndTask = gameManager.getScheduler().schedule(() -> post(() -> {
+            if (!gameManager.removeGame(config.player, this)) {
+                return;
             }
-        };
-
-        Timer gameEndTimer = new Timer();
-        gameEndTimer.scheduleAtFixedRate(gameEndTask, 0, 1000);
+            TextChannel channel = getShardManager().getTextChannelById(channelID);
+            if (channel != null) {
+                channel.sendMessage("Times up! Game has ended").queue();
+            }
+        }), Math.max(remaining, 0), TimeUnit.MILLISECONDS);
     }
 
     private void cancelGameEndTask() {
@@ -122,9 +503,4 @@ public class Game {
             gameEndTask = null;
         }
     }
-
-    private boolean isTimeUp() {
-        long elapsedTime = System.currentTimeMillis() - startTime.getTime();
-        return elapsedTime > settings.getDefaultTimeLimit() * 1000L;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import com.chalwk.util.Logging.Logger;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A per-game queue of work that runs one task at a time, in the order the tasks were posted.
+ * <p>
+ * Posting never blocks the caller. A mailbox with work in it is scheduled onto a shared executor, drains
+ * up to {@link #BATCH_SIZE} tasks and then yields, so a busy game cannot starve the others. Different
+ * games drain in parallel, so throughput grows with the number of cores.
+ */
+public class GameMailbox implements Runnable {
+
+    private static final int BATCH_SIZE = 32;
+
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public GameMailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the executor that mailboxes drain on: one virtual thread per drain when the runtime supports
+     * it (Java 21+), otherwise a daemon pool with one thread per core.
+     */
+    public static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "minesweeper-game");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Queues a task to run after every task already posted to this mailbox.
+     *
+     * @param task the task to run
+     */
+    public void post(Runnable task) {
+        queue.offer(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        Runnable task;
+        int processed = 0;
+        while (processed++ < BATCH_SIZE && (task = queue.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Logger.warning("Game task failed: " + e.getMessage());
+            }
+        }
+        scheduled.set(false);
+        if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+}
@@ -2,53 +2,196 @@
    See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
 package com.chalwk.game;
 
+import com.chalwk.game.solver.NoGuessGenerator;
+import com.chalwk.util.ChannelConfig;
 import com.chalwk.util.GameConfig;
-import net.dv8tion.jda.api.entities.User;
+import com.chalwk.util.Logging.Logger;
+import com.chalwk.util.settings;
+import net.dv8tion.jda.api.entities.UserSnowflake;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 
-import java.util.HashMap;
-import java.util.Map;
-
-import static com.chalwk.util.fileIO.loadChannelID;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Manages game-related operations, including creating games, inviting players, and managing pending invites.
  */
 public class GameManager {
 
-    private static String channelID = "";
-    private final Map<User, Game> games;
+    private final GameRegistry<Game> games;
+    private final GameScheduler scheduler;
+    private final ExecutorService executor;
+    private final MoveJournal journal;
+    /**
+     * Searches for no-guess boards, off the gateway thread and away from the mailbox executor, so a long
+     * search holds up neither gateway events nor other games.
+     */
+    private final ExecutorService dealer = Executors.newFixedThreadPool(
+            Math.max(Runtime.getRuntime().availableProcessors() / 2, 1), runnable -> {
+                Thread thread = new Thread(runnable, "minesweeper-dealer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final BoardPool boardPool = new BoardPool(dealer, settings.getPoolSize(), settings.getPoolMaxCells(),
+            settings.getPoolMaxConfigs(), TimeUnit.MILLISECONDS.toNanos(settings.getNoGuessBudgetMillis()));
+    private final Set<Long> dealing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextGameID = new AtomicLong(System.currentTimeMillis() << 20);
 
     public GameManager() {
-        channelID = loadChannelID();
-        this.games = new HashMap<>();
+        ChannelConfig.getInstance().load();
+        this.games = new GameRegistry<>();
+        this.scheduler = new GameScheduler();
+        this.executor = GameMailbox.newExecutor();
+        this.journal = openJournal();
+    }
+
+    private static MoveJournal openJournal() {
+        try {
+            return new MoveJournal(Paths.get(settings.getJournalDirectory()), settings.getJournalSegmentBytes());
+        } catch (IOException e) {
+            Logger.warning("Move journal disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the pool no-guess games take their boards from.
+     */
+    public BoardPool getBoardPool() {
+        return boardPool;
+    }
+
+    /**
+     * Returns the journal every move is recorded to, or null if it could not be opened.
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Returns a new game ID, unique across restarts.
+     */
+    long nextGameID() {
+        return nextGameID.getAndIncrement();
     }
 
-    public static String getChannelID() {
-        return GameManager.channelID;
+    /**
+     * Returns the scheduler shared by all games for timeouts and other deferred work.
+     */
+    public GameScheduler getScheduler() {
+        return scheduler;
     }
 
-    public void setChannelID(String channelID) {
-        GameManager.channelID = channelID;
+    /**
+     * Returns the executor that game mailboxes drain on.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
     }
 
+    /**
+     * Returns the lock that serialises creating and removing the given player's game. Moves on a running
+     * game go through {@link Game#post(Runnable)} instead.
+     */
+    public Lock lockFor(UserSnowflake player) {
+        return games.lockFor(player.getIdLong());
+    }
+
+    /**
+     * Creates and starts a game for the player. The caller must hold {@link #lockFor(UserSnowflake)}.
+     * <p>
+     * A no-guess game takes a ready board from the {@link BoardPool} when there is one. Otherwise its board
+     * has to be searched for, which can take up to {@link settings#getNoGuessBudgetMillis()}: the
+     * interaction is deferred and the search runs on the dealer pool without the lock; the player counts
+     * as {@linkplain #isDealing(UserSnowflake) dealing} until the game is registered, so a second
+     * {@code /start} is still refused.
+     */
     public void createGame(GameConfig config, SlashCommandInteractionEvent event) {
-        games.put(config.player, new Game(config, this, event));
+        if (!config.noGuess) {
+            games.add(config.player.getIdLong(), new Game(config, this, event));
+            return;
+        }
+        Board pooled = boardPool.take(config.rows, config.cols, config.mines);
+        if (pooled != null) {
+            games.add(config.player.getIdLong(), new Game(config, this, pooled, event));
+            return;
+        }
+        long playerID = config.player.getIdLong();
+        dealing.add(playerID);
+        event.deferReply().queue();
+        dealer.execute(() -> {
+            Board board = null;
+            try {
+                board = NoGuessGenerator.generate(config.rows, config.cols, config.mines, config.rows / 2,
+                        config.cols / 2, ThreadLocalRandom.current().nextLong(),
+                        TimeUnit.MILLISECONDS.toNanos(settings.getNoGuessBudgetMillis()));
+            } catch (RuntimeException e) {
+                Logger.warning("No-guess board search failed: " + e.getMessage());
+            }
+            // when no board turns up within the budget the game goes ahead on an ordinary one
+            Lock lock = lockFor(config.player);
+            lock.lock();
+            try {
+                games.add(playerID, new Game(config, this, board, event));
+            } finally {
+                dealing.remove(playerID);
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns true while a no-guess board is being searched for the player.
+     */
+    public boolean isDealing(UserSnowflake player) {
+        return dealing.contains(player.getIdLong());
     }
 
-    public boolean isInGame(User player) {
-        return games.containsKey(player);
+    /**
+     * Registers a game restored from a snapshot, unless the player already has one.
+     *
+     * @return true if the game was added
+     */
+    boolean restoreGame(Game game) {
+        return games.add(game.getPlayerID(), game);
     }
 
-    public Game getGame(User player) {
-        return games.get(player);
+    public boolean isInGame(UserSnowflake player) {
+        return games.contains(player.getIdLong());
     }
 
-    public Map<User, Game> getGames() {
+    public Game getGame(UserSnowflake player) {
+        return games.get(player.getIdLong());
+    }
+
+    public GameRegistry<Game> getGames() {
         return games;
     }
 
-    public void removeGame(User player) {
-        this.getGames().remove(player);
+    public void removeGame(UserSnowflake player) {
+        games.remove(player.getIdLong());
+    }
+
+    /**
+     * Removes the player's game only if it is still the given game.
+     *
+     * @return true if the game was removed
+     */
+    public boolean removeGame(UserSnowflake player, Game game) {
+        if (!games.remove(player.getIdLong(), game)) {
+            return false;
+        }
+        if (journal != null) {
+            journal.appendEnd(game.getGameID());
+        }
+        return true;
     }
 }
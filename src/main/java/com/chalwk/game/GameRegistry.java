@@ -0,0 +1,80 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent map of games keyed by the player's Discord user ID, with striped locking.
+ * <p>
+ * Lookups never block. Work on a game is serialised by holding {@link #lockFor(long)} for its player:
+ * each player ID hashes to one of a fixed set of locks, so two commands for the same game run one after
+ * the other while commands for other games almost always take a different lock and proceed in parallel.
+ *
+ * @param <G> the game type
+ */
+public class GameRegistry<G> {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<Long, G> games = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public GameRegistry() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the lock that guards the game of the given player. Hold it while creating, changing or
+     * removing that player's game.
+     */
+    public Lock lockFor(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return locks[(int) (h >>> 58) & (STRIPES - 1)];
+    }
+
+    public G get(long userId) {
+        return games.get(userId);
+    }
+
+    public boolean contains(long userId) {
+        return games.containsKey(userId);
+    }
+
+    /**
+     * Adds a game for the player unless they already have one.
+     *
+     * @return true if the game was added
+     */
+    public boolean add(long userId, G game) {
+        return games.putIfAbsent(userId, game) == null;
+    }
+
+    public G remove(long userId) {
+        return games.remove(userId);
+    }
+
+    /**
+     * Removes the player's game only if it is still the given instance, so a stale timer cannot remove a
+     * newer game.
+     *
+     * @return true if the game was removed
+     */
+    public boolean remove(long userId, G game) {
+        return games.remove(userId, game);
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    public Collection<G> values() {
+        return Collections.unmodifiableCollection(games.values());
+    }
+}
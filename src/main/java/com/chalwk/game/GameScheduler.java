@@ -0,0 +1,101 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import com.chalwk.util.Logging.Logger;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single scheduler thread shared by every game for one-shot deadlines such as game timeouts.
+ * <p>
+ * Cancelling a timer only flips its state; the cancelled entry is left in the queue and dropped when its
+ * deadline comes round, so {@link Timeout#cancel()} is O(1).
+ */
+public class GameScheduler {
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public GameScheduler() {
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "minesweeper-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(false);
+    }
+
+    /**
+     * Runs a task once after the given delay.
+     *
+     * @param task  the task to run
+     * @param delay the delay before running it
+     * @param unit  the unit of {@code delay}
+     * @return a handle that can cancel the task before it runs
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task);
+        pending.incrementAndGet();
+        timeout.future = executor.schedule(timeout::fire, delay, unit);
+        return timeout;
+    }
+
+    /**
+     * Returns the number of timers that have been scheduled and have neither run nor been cancelled.
+     */
+    public int getPendingTimers() {
+        return pending.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A handle to a scheduled task.
+     */
+    public class Timeout {
+
+        private final Runnable task;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile ScheduledFuture<?> future;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        private void fire() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Logger.warning("Scheduled task failed: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Cancels the task if it has not started yet.
+         *
+         * @return true if this call cancelled the task
+         */
+        public boolean cancel() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import com.chalwk.util.Logging.Logger;
+import com.chalwk.util.settings;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves running games to a binary file and restores them at startup, so a restart does not end them.
+ * <p>
+ * A save asks every game to capture itself on its own mailbox, which keeps the capture consistent with
+ * the moves around it and only re-encodes games that changed since the last save. The captured records
+ * are then written through a {@link FileChannel} to a temporary file that replaces the snapshot by atomic
+ * rename. Once every game has captured, the journal segments written before the save began are no
+ * longer needed for recovery and are deleted. File layout, big-endian: magic, format version and game
+ * count (ints), then per game its record length (int) and the record written by
+ * {@link Game#captureSnapshot()}.
+ * <p>
+ * Restoring maps the file read-only and rebuilds each game without any Discord calls, then replays any
+ * moves the {@link MoveJournal} holds past the snapshot. Timeouts are rescheduled for the time each game
+ * had left, and games that ended or ran out of time while the bot was down are dropped.
+ */
+public class GameSnapshotStore {
+
+    private static final int MAGIC = 0x4D535750; // "MSWP"
+    private static final int FORMAT_VERSION = 4;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long CAPTURE_TIMEOUT_SECONDS = 5;
+
+    private final Path file;
+    private final GameManager gameManager;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "minesweeper-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GameSnapshotStore(Path file, GameManager gameManager) {
+        this.file = file;
+        this.gameManager = gameManager;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Saves all games every {@code period} seconds on a background thread.
+     */
+    public void start(long period) {
+        writer.scheduleWithFixedDelay(this::saveQuietly, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic saves and writes one final snapshot. Called on shutdown.
+     */
+    public void close() {
+        writer.shutdown();
+        saveQuietly();
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            Logger.warning("Failed to save game snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Captures every running game and writes the snapshot file.
+     *
+     * @return the number of games written
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized int save() throws IOException {
+        MoveJournal journal = gameManager.getJournal();
+        // every move journaled before this point was made on its game's mailbox ahead of the capture below
+        long journalMark = journal == null ? 0 : journal.getPosition();
+        List<Game> games = new ArrayList<>(gameManager.getGames().values());
+        CountDownLatch captured = new CountDownLatch(games.size());
+        for (Game game : games) {
+            game.post(() -> {
+                try {
+                    game.captureSnapshot();
+                } finally {
+                    captured.countDown();
+                }
+            });
+        }
+        boolean complete = false;
+        try {
+            complete = captured.await(CAPTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (!complete) {
+                Logger.warning("Some games did not capture in time; writing their previous snapshot");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<byte[]> records = new ArrayList<>(games.size());
+        for (Game game : games) {
+            byte[] record = game.getSnapshot();
+            if (record != null && game.isActive()) {
+                records.add(record);
+            }
+        }
+
+        Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(records.size());
+                for (byte[] record : records) {
+                    if (buffer.remaining() < 4 + record.length) {
+                        write(channel, buffer);
+                    }
+                    buffer.putInt(record.length);
+                    if (record.length > buffer.remaining()) {
+                        write(channel, buffer);
+                        ByteBuffer large = ByteBuffer.wrap(record);
+                        while (large.hasRemaining()) {
+                            channel.write(large);
+                        }
+                    } else {
+                        buffer.put(record);
+                    }
+                }
+                write(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        if (journal != null && complete) {
+            // a game that missed its capture still needs the journal back to its previous snapshot
+            journal.deleteBefore(journalMark);
+        }
+        return records.size();
+    }
+
+    /**
+     * Reads the snapshot file, if there is one, brings its games up to date with the moves the
+     * {@link MoveJournal} recorded after the snapshot was taken, and registers the games that are still
+     * running with the game manager. Records that cannot be read are skipped.
+     *
+     * @return the number of games restored
+     */
+    public int restore() {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long limitMillis = settings.getDefaultTimeLimit() * 1000L;
+        Map<Long, Game> candidates = new HashMap<>();
+        int expired = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 12 || in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                Logger.warning("Ignoring game snapshot " + file + ": unknown format");
+                return 0;
+            }
+            int count = in.getInt();
+            for (int i = 0; i < count && in.remaining() >= 4; i++) {
+                int length = in.getInt();
+                int next = in.position() + length;
+                try {
+                    Game game = Game.readSnapshot(in.slice(in.position(), length), gameManager);
+                    if (game.getStartMillis() + limitMillis <= now) {
+                        expired++;
+                    } else {
+                        candidates.put(game.getGameID(), game);
+                    }
+                } catch (RuntimeException e) {
+                    Logger.warning("Skipping unreadable game in snapshot: " + e.getMessage());
+                }
+                in.position(next);
+            }
+        } catch (IOException e) {
+            Logger.warning("Failed to read game snapshot " + file + ": " + e.getMessage());
+        }
+
+        int replayed = replayJournal(candidates, now - limitMillis);
+
+        int restored = 0;
+        for (Game game : candidates.values()) {
+            if (game.board.getState() != BoardState.ONGOING) {
+                expired++;
+            } else if (gameManager.restoreGame(game)) {
+                game.resume();
+                restored++;
+            }
+        }
+        Logger.info("Restored " + restored + " games (" + expired + " ended, " + replayed
+                + " journal moves) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return restored;
+    }
+
+    /**
+     * Applies the journaled moves that follow each game's snapshot, and drops games the journal saw end.
+     */
+    private int replayJournal(Map<Long, Game> games, long notBefore) {
+        int[] replayed = new int[1];
+        try {
+            MoveJournal.replay(Paths.get(settings.getJournalDirectory()), notBefore,
+                    (gameID, timestamp, type, move, row, col, seed, mines, playerID) -> {
+                        Game game = games.get(gameID);
+                        if (game == null) {
+                            return;
+                        }
+                        if (type == MoveJournal.END) {
+                            games.remove(gameID);
+                        } else if (move > game.board.getMoveCount()) {
+                            MoveJournal.apply(game.board, type, row, col);
+                            game.board.advanceMoveCount(move);
+                            replayed[0]++;
+                        }
+                    });
+        } catch (IOException e) {
+            Logger.warning("Failed to replay move journal: " + e.getMessage());
+        }
+        return replayed[0];
+    }
+}
@@ -0,0 +1,88 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Picks mine positions with a partial Fisher–Yates shuffle.
+ * <p>
+ * The shuffle runs over a virtual identity array of cell indices; only the slots that have been swapped
+ * are stored, in a primitive open-addressing table. Drawing {@code count} mines therefore costs
+ * O(count) time and memory no matter how large or how dense the board is, and never retries.
+ */
+final class MineGenerator {
+
+    private static final int EMPTY = -1;
+
+    private MineGenerator() {
+    }
+
+    /**
+     * Draws {@code count} distinct cell indices from {@code [0, cells)}, skipping the excluded ones.
+     *
+     * @param cells    the number of cells on the board
+     * @param count    the number of mines to draw; must not exceed {@code cells - excluded.length}
+     * @param excluded sorted, distinct cell indices that must stay free of mines
+     * @param random   the source of randomness; the same generator state always yields the same mines
+     * @return the flat indices of the chosen cells, in draw order
+     */
+    static int[] sample(int cells, int count, int[] excluded, SplittableRandom random) {
+        int available = cells - excluded.length;
+        int[] mines = new int[count];
+
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        int[] keys = new int[capacity];
+        int[] values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        int mask = capacity - 1;
+
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(available - i);
+            int picked = lookup(keys, values, mask, j);
+            store(keys, values, mask, j, lookup(keys, values, mask, i));
+            mines[i] = skipExcluded(picked, excluded);
+        }
+        return mines;
+    }
+
+    private static int lookup(int[] keys, int[] values, int mask, int key) {
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            } else if (keys[slot] == EMPTY) {
+                return key;
+            }
+        }
+    }
+
+    private static void store(int[] keys, int[] values, int mask, int key, int value) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Maps a rank among the non-excluded cells back to a cell index.
+     */
+    private static int skipExcluded(int rank, int[] excluded) {
+        for (int cell : excluded) {
+            if (rank >= cell) {
+                rank++;
+            } else {
+                break;
+            }
+        }
+        return rank;
+    }
+}
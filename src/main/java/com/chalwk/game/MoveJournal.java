@@ -0,0 +1,320 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import com.chalwk.util.Logging.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of every game start, move and end, written to memory-mapped segment files.
+ * <p>
+ * Each entry is a fixed {@value #RECORD_BYTES}-byte record, so appending is reserving a slot with one
+ * atomic increment and copying the record into the mapped segment; threads appending for different
+ * games never block each other. A start record holds the board size, mine count and seed, which together
+ * with the moves that follow are enough to rebuild the game exactly. The last four bytes of a record are
+ * a CRC32C of the rest, so the end of the log, or a record torn by a crash, is recognised on reopening.
+ * <p>
+ * A segment stays mapped until every slot in it has been written, and the writer that fills the last
+ * slot flushes and retires it, so a writer that reserved a slot and was then delayed always finds its
+ * segment still mapped. Old segments are deleted by {@link #deleteBefore(long)} once a game snapshot
+ * covers everything in them.
+ * <p>
+ * Record layout, big-endian: game ID (long), timestamp in epoch milliseconds (long), type (int), move
+ * number within the game (int), row or board rows (int), column or board columns (int), seed (long),
+ * mine count (int), reserved (int), player ID (long), reserved (int), checksum (int).
+ */
+public class MoveJournal implements AutoCloseable {
+
+    public static final int START = 1;
+    public static final int REVEAL = 2;
+    public static final int FLAG = 3;
+    public static final int UNFLAG = 4;
+    public static final int END = 5;
+
+    static final int RECORD_BYTES = 64;
+    private static final int CHECKSUM_OFFSET = RECORD_BYTES - 4;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final AtomicLong nextSlot;
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Opens the journal in a directory, continuing after the last valid record.
+     *
+     * @param directory    the directory holding the segment files
+     * @param segmentBytes the size of each segment file; rounded down to whole records
+     * @throws IOException if the directory cannot be created or the last segment cannot be read
+     */
+    public MoveJournal(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = Math.max(segmentBytes / RECORD_BYTES, 1);
+        Files.createDirectories(directory);
+
+        List<Long> existing = segmentIndexes(directory);
+        long slot = 0;
+        if (!existing.isEmpty()) {
+            long last = existing.get(existing.size() - 1);
+            MappedByteBuffer buffer = map(last);
+            int records = 0;
+            while (records < recordsPerSegment && isValid(buffer, records * RECORD_BYTES)) {
+                records++;
+            }
+            slot = last * recordsPerSegment + records;
+            if (records < recordsPerSegment) {
+                segments.put(last, new Segment(buffer, records));
+            }
+        }
+        this.nextSlot = new AtomicLong(slot);
+    }
+
+    private static List<Long> segmentIndexes(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    indexes.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + CHECKSUM_OFFSET) == checksum(buffer, offset);
+    }
+
+    /**
+     * Reads every valid record in the journal, oldest first. Segments last modified before
+     * {@code notBefore} are skipped without being opened.
+     *
+     * @param directory the directory holding the segment files
+     * @param notBefore the epoch millisecond cut-off for whole segments, or 0 to read everything
+     * @param visitor   called once per record
+     * @throws IOException if a segment cannot be read
+     */
+    public static void replay(Path directory, long notBefore, Visitor visitor) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        for (long index : segmentIndexes(directory)) {
+            Path file = directory.resolve(PREFIX + index + SUFFIX);
+            if (notBefore > 0 && Files.getLastModifiedTime(file).toMillis() < notBefore) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int offset = 0; offset + RECORD_BYTES <= segment.capacity(); offset += RECORD_BYTES) {
+                    if (!isValid(segment, offset)) {
+                        break;
+                    }
+                    visitor.visit(segment.getLong(offset), segment.getLong(offset + 8), segment.getInt(offset + 16),
+                            segment.getInt(offset + 20), segment.getInt(offset + 24), segment.getInt(offset + 28),
+                            segment.getLong(offset + 32), segment.getInt(offset + 40), segment.getLong(offset + 48));
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the boards of every game in the journal from their seeds and moves, for audits and for
+     * replaying real games in benchmarks. Ended games are included.
+     *
+     * @param directory the directory holding the segment files
+     * @return the boards keyed by game ID
+     * @throws IOException if a segment cannot be read
+     */
+    public static Map<Long, Board> reconstruct(Path directory) throws IOException {
+        Map<Long, Board> boards = new HashMap<>();
+        replay(directory, 0, (gameID, timestamp, type, move, row, col, seed, mines, playerID) -> {
+            if (type == START) {
+                boards.put(gameID, Board.withMines(row, col, mines, seed));
+                return;
+            }
+            Board board = boards.get(gameID);
+            if (board != null) {
+                apply(board, type, row, col);
+            }
+        });
+        return boards;
+    }
+
+    /**
+     * Applies a move record to a board.
+     */
+    static void apply(Board board, int type, int row, int col) {
+        switch (type) {
+            case REVEAL -> board.revealCell(row, col);
+            case FLAG -> board.flagCell(row, col, true);
+            case UNFLAG -> board.flagCell(row, col, false);
+            default -> {
+            }
+        }
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        Path file = directory.resolve(PREFIX + index + SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_BYTES);
+        }
+    }
+
+    /**
+     * Returns the mapped segment for a slot that has been reserved but not yet written. Such a segment is
+     * either still mapped or has never been, since segments are only retired once all their slots are
+     * written.
+     */
+    private Segment segment(long index) throws IOException {
+        Segment segment = segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (segments) {
+            segment = segments.get(index);
+            if (segment == null) {
+                segment = new Segment(map(index), 0);
+                segments.put(index, segment);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Returns the slot the next record will be written to. Every record in a lower slot has at least been
+     * reserved.
+     */
+    public long getPosition() {
+        return nextSlot.get();
+    }
+
+    /**
+     * Deletes the segment files that hold only records in slots below {@code slot}. Segments that are
+     * still being written are kept.
+     *
+     * @param slot a position from {@link #getPosition()} that everything earlier is no longer needed for
+     * @return the number of segment files deleted
+     */
+    public int deleteBefore(long slot) {
+        long firstKept = Math.min(slot, nextSlot.get()) / recordsPerSegment;
+        int deleted = 0;
+        try {
+            for (long index : segmentIndexes(directory)) {
+                if (index >= firstKept) {
+                    break;
+                }
+                if (!segments.containsKey(index) && Files.deleteIfExists(directory.resolve(PREFIX + index + SUFFIX))) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            Logger.warning("Failed to delete old move journal segments: " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    /**
+     * Records the start of a game.
+     */
+    public void appendStart(long gameID, long playerID, Board board) {
+        append(gameID, START, 0, board.getRows(), board.getCols(), board.getSeed(), board.getMineCount(), playerID);
+    }
+
+    /**
+     * Records a move; {@code move} is the move's number within the game, starting at 1.
+     */
+    public void appendMove(long gameID, int type, int move, int row, int col) {
+        append(gameID, type, move, row, col, 0, 0, 0);
+    }
+
+    /**
+     * Records the end of a game.
+     */
+    public void appendEnd(long gameID) {
+        append(gameID, END, 0, 0, 0, 0, 0, 0);
+    }
+
+    private void append(long gameID, int type, int move, int row, int col, long seed, int mines, long playerID) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.putLong(gameID).putLong(System.currentTimeMillis()).putInt(type).putInt(move)
+                .putInt(row).putInt(col).putLong(seed).putInt(mines).putInt(0).putLong(playerID);
+        record.putInt(CHECKSUM_OFFSET, checksum(record, 0));
+
+        long slot = nextSlot.getAndIncrement();
+        long index = slot / recordsPerSegment;
+        try {
+            Segment segment = segment(index);
+            segment.buffer.put((int) (slot % recordsPerSegment) * RECORD_BYTES, record.array());
+            if (segment.written.incrementAndGet() == recordsPerSegment) {
+                // the last slot is written, so no other writer can still need this segment
+                segments.remove(index);
+                segment.buffer.force();
+            }
+        } catch (IOException e) {
+            Logger.warning("Failed to append to move journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the mapped segments to disk.
+     */
+    @Override
+    public void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * A mapped segment file and the number of its slots written so far.
+     */
+    private static final class Segment {
+
+        final MappedByteBuffer buffer;
+        final AtomicInteger written;
+
+        Segment(MappedByteBuffer buffer, int written) {
+            this.buffer = buffer;
+            this.written = new AtomicInteger(written);
+        }
+    }
+
+    /**
+     * Receives journal records during {@link #replay(Path, long, Visitor)}. For a {@link #START} record
+     * {@code row} and {@code col} are the board's rows and columns; {@code seed} and {@code mines} are only
+     * set on start records.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long gameID, long timestamp, int type, int move, int row, int col, long seed, int mines,
+                   long playerID);
+    }
+}
@@ -0,0 +1,106 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces board updates for one game so a burst of moves produces a single embed edit.
+ * <p>
+ * The first {@link #request()} in a quiet period arms a timer for {@link #WINDOW_MILLIS}; further requests
+ * inside the window only count as coalesced. When the timer fires, the render is posted to the game's
+ * mailbox and draws whatever the board looks like at that moment, so the edit always shows the latest
+ * state. All methods must be called from the game's mailbox.
+ */
+public class RenderScheduler {
+
+    /**
+     * How long to wait for further moves before editing the board message.
+     */
+    public static final long WINDOW_MILLIS = 250;
+
+    private static final LongAdder REQUESTED = new LongAdder();
+    private static final LongAdder SENT = new LongAdder();
+
+    private final GameScheduler scheduler;
+    private final GameMailbox mailbox;
+    private final Runnable render;
+    private GameScheduler.Timeout pending;
+    private int generation;
+
+    public RenderScheduler(GameScheduler scheduler, GameMailbox mailbox, Runnable render) {
+        this.scheduler = scheduler;
+        this.mailbox = mailbox;
+        this.render = render;
+    }
+
+    /**
+     * Returns how many board updates have been requested across all games.
+     */
+    public static long getRequestedCount() {
+        return REQUESTED.sum();
+    }
+
+    /**
+     * Returns how many embed edits have actually been sent across all games.
+     */
+    public static long getSentCount() {
+        return SENT.sum();
+    }
+
+    /**
+     * Returns how many requested updates were folded into another edit instead of being sent.
+     */
+    public static long getCoalescedCount() {
+        return getRequestedCount() - getSentCount();
+    }
+
+    /**
+     * Asks for the board to be redrawn within the coalescing window.
+     */
+    public void request() {
+        REQUESTED.increment();
+        if (pending == null) {
+            int scheduledGeneration = generation;
+            pending = scheduler.schedule(() -> mailbox.post(() -> fire(scheduledGeneration)),
+                    WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Redraws the board immediately, folding in any request still waiting for its window. Used for the
+     * final board of a game.
+     */
+    public void flush() {
+        flush(render);
+    }
+
+    /**
+     * Redraws the board immediately through the given sender instead of the usual one, folding in any
+     * request still waiting for its window. Used when an interaction is answered by the edit itself.
+     *
+     * @param sender draws and sends the board
+     */
+    public void flush(Runnable sender) {
+        REQUESTED.increment();
+        if (pending != null) {
+            pending.cancel();
+        }
+        renderNow(sender);
+    }
+
+    private void fire(int scheduledGeneration) {
+        // a flush may have drawn the board after this timer fired but before it reached the mailbox
+        if (pending != null && scheduledGeneration == generation) {
+            renderNow(render);
+        }
+    }
+
+    private void renderNow(Runnable sender) {
+        pending = null;
+        generation++;
+        SENT.increment();
+        sender.run();
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+/**
+ * A compact text encoding for boards too large for the grid. Each row is one line of space-separated
+ * cells using the grid's symbols ({@code .} hidden, {@code ?} flagged, {@code *} mine, {@code 0}-{@code 8}
+ * revealed), and a run of {@value #MIN_RUN} or more identical cells is written once with its length, so
+ * {@code .x12} is twelve hidden cells. Mostly hidden or mostly cleared rows shrink to a few characters.
+ */
+final class RunLengthRenderer implements BoardRenderer {
+
+    static final int MIN_RUN = 3;
+    private static final String LEGEND = "Runs of cells are shortened: `.x12` is 12 hidden cells.\n";
+
+    private static int digits(int value) {
+        return Integer.toString(value).length();
+    }
+
+    private static char symbol(Board board, int row, int col) {
+        if (board.isRevealed(row, col)) {
+            return board.isMine(row, col) ? '*' : (char) ('0' + board.getHint(row, col));
+        }
+        return board.isFlagged(row, col) ? '?' : '.';
+    }
+
+    @Override
+    public int minimumLength(Board board) {
+        // every row has at least its label, separator, one cell and a newline
+        long perRow = digits(board.getRows() - 1) + 2 + 1 + 1;
+        return (int) Math.min(LEGEND.length() + 7 + perRow * board.getRows(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void render(Board board, StringBuilder out) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        int labelWidth = digits(rows - 1);
+
+        out.append(LEGEND).append("```\n");
+        for (int row = 0; row < rows; row++) {
+            for (int pad = digits(row); pad < labelWidth; pad++) {
+                out.append(' ');
+            }
+            out.append(row).append('|');
+
+            int col = 0;
+            while (col < cols) {
+                char symbol = symbol(board, row, col);
+                int end = col + 1;
+                while (end < cols && symbol(board, row, end) == symbol) {
+                    end++;
+                }
+                int run = end - col;
+                if (run >= MIN_RUN) {
+                    out.append(' ').append(symbol).append('x').append(run);
+                } else {
+                    for (int i = 0; i < run; i++) {
+                        out.append(' ').append(symbol);
+                    }
+                }
+                col = end;
+            }
+            out.append('\n');
+        }
+        out.append("```");
+    }
+}
@@ -0,0 +1,53 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+/**
+ * The classic Discord minesweeper board: a grid of emoji in which every hidden cell is wrapped in a
+ * spoiler tag hiding what is underneath, so the board can also be played by clicking the spoilers.
+ * Revealed cells and flags are shown openly. Mines must already be placed for the spoilers to mean
+ * anything, so classic games open a starting cell when they begin.
+ */
+final class SpoilerRenderer implements BoardRenderer {
+
+    private static final String[] NUMBERS = new String[9];
+    private static final String BLANK = "\u2B1C"; // white square
+    private static final String MINE = "\uD83D\uDCA3"; // bomb
+    private static final String FLAG = "\uD83D\uDEA9"; // triangular flag
+    private static final String SPOILER = "||";
+
+    static {
+        NUMBERS[0] = BLANK;
+        for (int i = 1; i < NUMBERS.length; i++) {
+            NUMBERS[i] = (char) ('0' + i) + "\uFE0F\u20E3"; // keycap digit
+        }
+    }
+
+    private static String content(Board board, int row, int col) {
+        return board.isMine(row, col) ? MINE : NUMBERS[board.getHint(row, col)];
+    }
+
+    @Override
+    public int minimumLength(Board board) {
+        // the shortest cell is a one-character square; each row ends in a newline
+        return board.getRows() * (board.getCols() + 1);
+    }
+
+    @Override
+    public void render(Board board, StringBuilder out) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (board.isRevealed(row, col)) {
+                    out.append(content(board, row, col));
+                } else if (board.isFlagged(row, col)) {
+                    out.append(FLAG);
+                } else {
+                    out.append(SPOILER).append(content(board, row, col)).append(SPOILER);
+                }
+            }
+            out.append('\n');
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+/**
+ * The original code-block grid: a header of column numbers, then one line per row with every cell shown
+ * as {@code [.]}, {@code [?]}, {@code [*]}, {@code [ ]} or {@code [n]}. Uses the board's own row cache.
+ */
+final class TextGridRenderer implements BoardRenderer {
+
+    @Override
+    public int minimumLength(Board board) {
+        return board.getBoardStringLength();
+    }
+
+    @Override
+    public void render(Board board, StringBuilder out) {
+        board.appendBoardString(out);
+    }
+}
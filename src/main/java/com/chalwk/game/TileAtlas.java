@@ -0,0 +1,153 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-rasterised cell images for {@link BoardImageRenderer}, one set per tile size.
+ * <p>
+ * Tiles are arrays of palette indexes, so drawing a cell is a row-by-row array copy. They are drawn once
+ * from simple shapes and a built-in 3x5 digit font, with no AWT or system fonts involved, and shared by
+ * every board rendered at that size.
+ */
+final class TileAtlas {
+
+    static final int HIDDEN = 0;
+    static final int FLAG = 1;
+    static final int MINE = 2;
+    /**
+     * Revealed cells: {@code DIGIT + hint}, so a blank revealed cell is {@code DIGIT}.
+     */
+    static final int DIGIT = 3;
+    static final int TILE_COUNT = DIGIT + 9;
+
+    static final byte BACKGROUND = 0;
+    static final byte LABEL = 1;
+    private static final byte GRID = 2;
+    private static final byte COVER = 3;
+    private static final byte COVER_LIGHT = 4;
+    private static final byte OPEN = 5;
+    private static final byte MINE_COLOUR = 6;
+    private static final byte FLAG_COLOUR = 7;
+    private static final byte POLE = 8;
+    private static final byte FIRST_DIGIT_COLOUR = 9;
+
+    /**
+     * The palette as packed RGB, indexed by the values stored in tiles.
+     */
+    static final int[] PALETTE = {
+            0x2B2D31, 0xB5BAC1, 0x1E1F22, 0x80848E, 0x9EA2AB, 0xD0D3D8, 0x111214, 0xED4245, 0x313338,
+            0x1E66F5, 0x2E8B2E, 0xD32F2F, 0x1A237E, 0x8B1A1A, 0x00838F, 0x212121, 0x616161
+    };
+
+    /**
+     * Digits 0-9 as 3x5 bitmaps, one row per nibble (bit 2 is the left column).
+     */
+    private static final int[][] GLYPHS = {
+            {7, 5, 5, 5, 7}, {2, 6, 2, 2, 7}, {7, 1, 7, 4, 7}, {7, 1, 7, 1, 7}, {5, 5, 7, 1, 1},
+            {7, 4, 7, 1, 7}, {7, 4, 7, 5, 7}, {7, 1, 1, 1, 1}, {7, 5, 7, 5, 7}, {7, 5, 7, 1, 7}
+    };
+
+    private static final ConcurrentHashMap<Integer, TileAtlas> ATLASES = new ConcurrentHashMap<>();
+
+    final int size;
+    private final byte[][] tiles = new byte[TILE_COUNT][];
+
+    private TileAtlas(int size) {
+        this.size = size;
+        for (int tile = 0; tile < TILE_COUNT; tile++) {
+            tiles[tile] = draw(tile);
+        }
+    }
+
+    /**
+     * Returns the shared atlas for a tile size, drawing it on first use.
+     */
+    static TileAtlas forSize(int size) {
+        return ATLASES.computeIfAbsent(size, TileAtlas::new);
+    }
+
+    /**
+     * Draws a digit of the built-in font into a row-major palette-index raster.
+     *
+     * @param raster the raster to draw into
+     * @param stride the width of the raster
+     * @param x      the left edge of the glyph
+     * @param y      the top edge of the glyph
+     * @param digit  the digit, 0-9
+     * @param scale  the size of one font pixel
+     * @param colour the palette index to draw with
+     */
+    static void drawDigit(byte[] raster, int stride, int x, int y, int digit, int scale, byte colour) {
+        int[] glyph = GLYPHS[digit];
+        for (int gy = 0; gy < 5; gy++) {
+            for (int gx = 0; gx < 3; gx++) {
+                if ((glyph[gy] & (4 >> gx)) != 0) {
+                    for (int py = 0; py < scale; py++) {
+                        int row = (y + gy * scale + py) * stride + x + gx * scale;
+                        Arrays.fill(raster, row, row + scale, colour);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the raster of a tile, {@code size * size} palette indexes in row-major order.
+     */
+    byte[] tile(int tile) {
+        return tiles[tile];
+    }
+
+    private byte[] draw(int tile) {
+        byte[] pixels = new byte[size * size];
+        Arrays.fill(pixels, GRID);
+        boolean revealed = tile >= MINE;
+        fill(pixels, 1, 1, size - 1, size - 1, revealed ? OPEN : COVER);
+        if (!revealed && size >= 8) {
+            fill(pixels, 1, 1, size - 1, 2, COVER_LIGHT);
+            fill(pixels, 1, 1, 2, size - 1, COVER_LIGHT);
+        }
+
+        int inner = size - 2;
+        if (tile == FLAG) {
+            if (size < 6) {
+                fill(pixels, 1, 1, size - 1, size - 1, FLAG_COLOUR);
+            } else {
+                int pole = size / 2;
+                fill(pixels, pole, size / 4, pole + Math.max(size / 12, 1), size - size / 4, POLE);
+                fill(pixels, size / 4, size / 4, pole, size / 2, FLAG_COLOUR);
+            }
+        } else if (tile == MINE) {
+            double radius = Math.max(inner / 3.0, 1);
+            double centre = size / 2.0;
+            for (int y = 1; y < size - 1; y++) {
+                for (int x = 1; x < size - 1; x++) {
+                    double dx = x + 0.5 - centre;
+                    double dy = y + 0.5 - centre;
+                    if (dx * dx + dy * dy <= radius * radius) {
+                        pixels[y * size + x] = MINE_COLOUR;
+                    }
+                }
+            }
+        } else if (tile > DIGIT) {
+            int hint = tile - DIGIT;
+            byte colour = (byte) (FIRST_DIGIT_COLOUR + hint - 1);
+            int scale = (inner - 2) / 6;
+            if (scale < 1) {
+                fill(pixels, 1, 1, size - 1, size - 1, colour);
+            } else {
+                drawDigit(pixels, size, (size - 3 * scale) / 2, (size - 5 * scale) / 2, hint, scale, colour);
+            }
+        }
+        return pixels;
+    }
+
+    private void fill(byte[] pixels, int x0, int y0, int x1, int y1, byte colour) {
+        for (int y = y0; y < y1; y++) {
+            Arrays.fill(pixels, y * size + x0, y * size + x1, colour);
+        }
+    }
+}
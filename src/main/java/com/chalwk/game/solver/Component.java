@@ -0,0 +1,400 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game.solver;
+
+import java.util.Arrays;
+
+/**
+ * One independent part of the frontier: hidden cells that touch a number, linked to each other through
+ * numbers they share. Nothing decided in one component says anything about another.
+ * <p>
+ * A constraint lists the at most eight cells around its number and keeps which of them are still
+ * undecided as a bitset over that list, so deciding a cell clears one bit and the single-cell rule is a
+ * population count. The enumeration renumbers the cells of a group into the bits of one {@code long} and
+ * tests each constraint against a partial assignment with two ANDs and two population counts.
+ */
+final class Component {
+
+    /**
+     * The most undecided cells one enumeration may cover, so that an assignment fits in a {@code long}.
+     */
+    static final int MAX_ENUMERATION_CELLS = 64;
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+    private final int[] cells;
+    private final int[][] vars;
+    private final int[] live;
+    private final int[] need;
+    private final int[] source;
+    private final int[][] constraintsOf;
+    private final boolean[] decided;
+
+    private final int[] queue;
+    private final boolean[] queued;
+    private int head;
+    private int tail;
+    private int pending;
+
+    /**
+     * @param cells       the board index of each local cell
+     * @param constraints the local cells of each constraint
+     * @param need        the undiscovered mines of each constraint
+     * @param source      the board index of the number behind each constraint
+     */
+    Component(int[] cells, int[][] constraints, int[] need, int[] source) {
+        this.cells = cells;
+        this.vars = constraints;
+        this.need = need;
+        this.source = source;
+        this.live = new int[constraints.length];
+        this.decided = new boolean[cells.length];
+
+        int[] counts = new int[cells.length];
+        for (int c = 0; c < constraints.length; c++) {
+            live[c] = (1 << constraints[c].length) - 1;
+            for (int v : constraints[c]) {
+                counts[v]++;
+            }
+        }
+        this.constraintsOf = new int[cells.length][];
+        for (int v = 0; v < cells.length; v++) {
+            constraintsOf[v] = new int[counts[v]];
+            counts[v] = 0;
+        }
+        for (int c = 0; c < constraints.length; c++) {
+            for (int v : constraints[c]) {
+                constraintsOf[v][counts[v]++] = c;
+            }
+        }
+
+        this.queue = new int[constraints.length];
+        this.queued = new boolean[constraints.length];
+        for (int c = 0; c < constraints.length; c++) {
+            enqueue(c);
+        }
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private void enqueue(int c) {
+        if (!queued[c]) {
+            queued[c] = true;
+            queue[tail] = c;
+            tail = tail + 1 == queue.length ? 0 : tail + 1;
+            pending++;
+        }
+    }
+
+    /**
+     * Applies the single-cell and pair rules until neither finds anything more. Only constraints that
+     * changed since they were last looked at are checked again.
+     *
+     * @return false if the deadline passed first
+     */
+    boolean propagate(SolverResult out, long deadline) {
+        int checked = 0;
+        while (pending > 0) {
+            if (++checked % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return false;
+            }
+            int c = queue[head];
+            queued[c] = false;
+            head = head + 1 == queue.length ? 0 : head + 1;
+            pending--;
+            if (!applySingleRule(c, out)) {
+                applyPairRule(c, out);
+            }
+        }
+        return true;
+    }
+
+    private boolean applySingleRule(int c, SolverResult out) {
+        int free = Integer.bitCount(live[c]);
+        if (free == 0) {
+            return false;
+        }
+        if (need[c] == 0) {
+            decideAll(c, live[c], false, Rule.SINGLE, source[c], -1, out);
+            return true;
+        }
+        if (need[c] == free) {
+            decideAll(c, live[c], true, Rule.SINGLE, source[c], -1, out);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compares a constraint with every constraint it shares an undecided cell with. With {@code I} the
+     * shared cells and {@code A}, {@code B} the cells only in one or the other, the overlap holds between
+     * {@code max(needA - |A|, needB - |B|, 0)} and {@code min(|I|, needA, needB)} mines, which can force
+     * {@code A} or {@code B} to be all mines or all safe. When one side is empty this is the subset rule.
+     */
+    private void applyPairRule(int a, SolverResult out) {
+        for (int i = 0; i < vars[a].length; i++) {
+            if ((live[a] & (1 << i)) == 0) {
+                continue;
+            }
+            for (int b : constraintsOf[vars[a][i]]) {
+                if (b != a && Integer.bitCount(live[b]) > 0 && lowestShared(a, b) == i && applyPair(a, b, out)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the bits, in {@code a}'s list, of the undecided cells {@code a} shares with {@code b}.
+     */
+    private int sharedBits(int a, int b) {
+        int shared = 0;
+        for (int i = 0; i < vars[a].length; i++) {
+            if ((live[a] & (1 << i)) == 0) {
+                continue;
+            }
+            for (int j = 0; j < vars[b].length; j++) {
+                if (vars[b][j] == vars[a][i] && (live[b] & (1 << j)) != 0) {
+                    shared |= 1 << i;
+                    break;
+                }
+            }
+        }
+        return shared;
+    }
+
+    private int lowestShared(int a, int b) {
+        int shared = sharedBits(a, b);
+        return shared == 0 ? -1 : Integer.numberOfTrailingZeros(shared);
+    }
+
+    private boolean applyPair(int a, int b, SolverResult out) {
+        int sharedA = sharedBits(a, b);
+        int sharedB = sharedBits(b, a);
+        int onlyA = live[a] & ~sharedA;
+        int onlyB = live[b] & ~sharedB;
+        int sizeA = Integer.bitCount(onlyA);
+        int sizeB = Integer.bitCount(onlyB);
+        if (sizeA == 0 && sizeB == 0) {
+            return false;
+        }
+        int low = Math.max(Math.max(need[a] - sizeA, need[b] - sizeB), 0);
+        int high = Math.min(Integer.bitCount(sharedA), Math.min(need[a], need[b]));
+        Rule rule = sizeA == 0 || sizeB == 0 ? Rule.SUBSET : Rule.PAIR;
+
+        // decide from the bounds computed before either side changes
+        boolean minesA = sizeA > 0 && need[a] - high == sizeA;
+        boolean safeA = sizeA > 0 && need[a] - low == 0;
+        boolean minesB = sizeB > 0 && need[b] - high == sizeB;
+        boolean safeB = sizeB > 0 && need[b] - low == 0;
+        if (minesA || safeA) {
+            decideAll(a, onlyA, minesA, rule, source[a], source[b], out);
+        }
+        if (minesB || safeB) {
+            decideAll(b, onlyB, minesB, rule, source[b], source[a], out);
+        }
+        return minesA || safeA || minesB || safeB;
+    }
+
+    private void decideAll(int c, int bits, boolean mine, Rule rule, int from, int other, SolverResult out) {
+        int[] list = vars[c];
+        for (; bits != 0; bits &= bits - 1) {
+            decide(list[Integer.numberOfTrailingZeros(bits)], mine, rule, from, other, out);
+        }
+    }
+
+    private void decide(int v, boolean mine, Rule rule, int from, int other, SolverResult out) {
+        if (decided[v]) {
+            return;
+        }
+        decided[v] = true;
+        for (int c : constraintsOf[v]) {
+            int[] list = vars[c];
+            for (int i = 0; i < list.length; i++) {
+                if (list[i] == v && (live[c] & (1 << i)) != 0) {
+                    live[c] &= ~(1 << i);
+                    if (mine) {
+                        need[c]--;
+                    }
+                }
+            }
+            enqueue(c);
+        }
+        out.add(cells[v], mine, rule, from, other);
+    }
+
+    /**
+     * Splits the undecided cells into groups still linked by a constraint and, for each group of at most
+     * {@link #MAX_ENUMERATION_CELLS} cells, enumerates every consistent assignment by backtracking. A cell
+     * that is a mine in all of them, or in none, is decided.
+     *
+     * @return true if anything was decided
+     */
+    boolean enumerate(SolverResult out, long deadline) {
+        int[] parent = new int[cells.length];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        for (int c = 0; c < vars.length; c++) {
+            int first = -1;
+            for (int bits = live[c]; bits != 0; bits &= bits - 1) {
+                int v = vars[c][Integer.numberOfTrailingZeros(bits)];
+                if (first < 0) {
+                    first = v;
+                } else {
+                    parent[find(parent, v)] = find(parent, first);
+                }
+            }
+        }
+
+        int[] groupSize = new int[cells.length];
+        for (int v = 0; v < cells.length; v++) {
+            if (!decided[v]) {
+                groupSize[find(parent, v)]++;
+            }
+        }
+        int[][] groups = new int[cells.length][];
+        for (int v = 0; v < cells.length; v++) {
+            int root = find(parent, v);
+            int size = groupSize[root];
+            if (decided[v] || size > MAX_ENUMERATION_CELLS) {
+                continue;
+            }
+            if (groups[root] == null) {
+                groups[root] = new int[size];
+                groupSize[root] = 0;
+            }
+            groups[root][groupSize[root]++] = v;
+        }
+
+        boolean changed = false;
+        for (int[] group : groups) {
+            if (group == null) {
+                continue;
+            }
+            Enumeration enumeration = new Enumeration(group, deadline);
+            if (!enumeration.run()) {
+                out.markIncomplete();
+                return changed;
+            }
+            if (enumeration.solutions == 0) {
+                continue; // contradictory, e.g. a wrong trusted flag
+            }
+            for (int i = 0; i < group.length; i++) {
+                long bit = 1L << i;
+                if ((enumeration.always & bit) != 0) {
+                    decide(group[i], true, Rule.ENUMERATION, -1, -1, out);
+                    changed = true;
+                } else if ((enumeration.ever & bit) == 0) {
+                    decide(group[i], false, Rule.ENUMERATION, -1, -1, out);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Backtracking over one group, with the group's cells as the bits of a {@code long}.
+     */
+    private final class Enumeration {
+
+        final long deadline;
+        final long[] masks;
+        final int[] needs;
+        final int[][] touching;
+        long always = -1L;
+        long ever;
+        long solutions;
+        long nodes;
+
+        Enumeration(int[] group, long deadline) {
+            this.deadline = deadline;
+            int[] localOf = new int[cells.length];
+            Arrays.fill(localOf, -1);
+            for (int i = 0; i < group.length; i++) {
+                localOf[group[i]] = i;
+            }
+
+            // every undecided cell of a constraint lies in the same group, so the group's cells reach all
+            // of the group's constraints
+            boolean[] seen = new boolean[vars.length];
+            int[] ids = new int[vars.length];
+            int count = 0;
+            for (int v : group) {
+                for (int c : constraintsOf[v]) {
+                    if (!seen[c] && live[c] != 0) {
+                        seen[c] = true;
+                        ids[count++] = c;
+                    }
+                }
+            }
+            this.masks = new long[count];
+            this.needs = new int[count];
+            int[] perCell = new int[group.length];
+            for (int k = 0; k < count; k++) {
+                int c = ids[k];
+                needs[k] = need[c];
+                for (int bits = live[c]; bits != 0; bits &= bits - 1) {
+                    int local = localOf[vars[c][Integer.numberOfTrailingZeros(bits)]];
+                    masks[k] |= 1L << local;
+                    perCell[local]++;
+                }
+            }
+            this.touching = new int[group.length][];
+            for (int i = 0; i < group.length; i++) {
+                touching[i] = new int[perCell[i]];
+                perCell[i] = 0;
+            }
+            for (int k = 0; k < count; k++) {
+                for (long bits = masks[k]; bits != 0; bits &= bits - 1) {
+                    int local = Long.numberOfTrailingZeros(bits);
+                    touching[local][perCell[local]++] = k;
+                }
+            }
+        }
+
+        /**
+         * @return false if the deadline passed before every assignment was tried
+         */
+        boolean run() {
+            return search(0, 0L);
+        }
+
+        private boolean search(int index, long assignment) {
+            if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return false;
+            }
+            if (index == touching.length) {
+                solutions++;
+                always &= assignment;
+                ever |= assignment;
+                return true;
+            }
+            long assigned = index == 63 ? -1L : (2L << index) - 1;
+            for (int value = 0; value <= 1; value++) {
+                long next = value == 0 ? assignment : assignment | (1L << index);
+                if (consistent(index, next, assigned) && !search(index + 1, next)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean consistent(int index, long assignment, long assigned) {
+            for (int k : touching[index]) {
+                int mines = Long.bitCount(masks[k] & assignment);
+                int open = Long.bitCount(masks[k] & ~assigned);
+                if (mines > needs[k] || mines + open < needs[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
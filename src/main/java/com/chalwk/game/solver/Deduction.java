@@ -0,0 +1,35 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game.solver;
+
+/**
+ * A hidden cell the solver proved to be safe or a mine, with the numbers that proved it.
+ */
+public final class Deduction {
+
+    public final int row;
+    public final int col;
+    public final boolean mine;
+    public final Rule rule;
+    /**
+     * The number the deduction was read from, or -1 for {@link Rule#ENUMERATION} and {@link Rule#MINE_COUNT}.
+     */
+    public final int sourceRow;
+    public final int sourceCol;
+    /**
+     * The second number of a {@link Rule#SUBSET} or {@link Rule#PAIR} deduction, or -1.
+     */
+    public final int otherRow;
+    public final int otherCol;
+
+    Deduction(int cell, boolean mine, Rule rule, int source, int other, int cols) {
+        this.row = cell / cols;
+        this.col = cell % cols;
+        this.mine = mine;
+        this.rule = rule;
+        this.sourceRow = source < 0 ? -1 : source / cols;
+        this.sourceCol = source < 0 ? -1 : source % cols;
+        this.otherRow = other < 0 ? -1 : other / cols;
+        this.otherCol = other < 0 ? -1 : other % cols;
+    }
+}
@@ -0,0 +1,79 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game.solver;
+
+import com.chalwk.game.Board;
+import com.chalwk.game.BoardState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates boards that can be cleared without guessing from a known first click.
+ * <p>
+ * Candidate seeds are drawn one after another from the caller's seed. For each, the mines are placed
+ * around the start cell exactly as {@link Board#placeMines(int, int)} would on the player's first reveal,
+ * and the board is played out by the {@link Solver}, which reveals only what it can prove safe. The first
+ * seed that plays out to a win is returned as a fresh board, so a game that opens the same start cell
+ * gets the same layout, and the journal's seed still reproduces it.
+ */
+public final class NoGuessGenerator {
+
+    private NoGuessGenerator() {
+    }
+
+    /**
+     * Searches for a board that needs no guessing when play starts at the given cell.
+     *
+     * @param rows        the number of rows
+     * @param cols        the number of columns
+     * @param mines       the number of mines
+     * @param startRow    the row the game will open first
+     * @param startCol    the column the game will open first
+     * @param seed        the seed candidate seeds are drawn from
+     * @param budgetNanos how long to search
+     * @return an unplayed board, or null if none was found in time
+     */
+    public static Board generate(int rows, int cols, int mines, int startRow, int startCol, long seed,
+                                 long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        SplittableRandom seeds = new SplittableRandom(seed);
+        Solver solver = new Solver(budgetNanos);
+        while (System.nanoTime() < deadline) {
+            long candidate = seeds.nextLong();
+            if (isSolvable(solver, Board.withMines(rows, cols, mines, candidate), startRow, startCol, deadline)) {
+                return Board.withMines(rows, cols, mines, candidate);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plays a board from the start cell using only deductions. Changes the board.
+     *
+     * @return true if the board was won without a guess before the deadline
+     */
+    static boolean isSolvable(Solver solver, Board board, int startRow, int startCol, long deadline) {
+        int cols = board.getCols();
+        board.revealCell(startRow, startCol);
+        int[] safe = new int[64];
+        while (board.getState() == BoardState.ONGOING) {
+            SolverResult result = solver.solve(board, true, deadline);
+            if (!result.isComplete() || result.getSafeCount() == 0) {
+                return false;
+            }
+            if (safe.length < result.getSafeCount()) {
+                safe = new int[result.getSafeCount()];
+            }
+            int n = 0;
+            for (Deduction deduction : result.getDeductions()) {
+                if (deduction.mine) {
+                    board.flagCell(deduction.row, deduction.col, true);
+                } else {
+                    safe[n++] = deduction.row * cols + deduction.col;
+                }
+            }
+            board.revealCells(safe, n);
+        }
+        return board.getState() == BoardState.WON;
+    }
+}
@@ -0,0 +1,29 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game.solver;
+
+/**
+ * The reasoning behind a {@link Deduction}, from the simplest to the most involved.
+ */
+public enum Rule {
+    /**
+     * One number on its own: all its mines are found, or it has exactly as many hidden neighbours as mines.
+     */
+    SINGLE,
+    /**
+     * Two numbers whose hidden neighbours are one inside the other; the difference holds the difference.
+     */
+    SUBSET,
+    /**
+     * Two numbers whose hidden neighbours overlap, bounding how many mines the overlap can hold.
+     */
+    PAIR,
+    /**
+     * Every arrangement of mines consistent with the numbers of a frontier component agrees on the cell.
+     */
+    ENUMERATION,
+    /**
+     * The board's total mine count is already used up, or needs every remaining cell.
+     */
+    MINE_COUNT
+}
@@ -0,0 +1,308 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game.solver;
+
+import com.chalwk.game.Board;
+import com.chalwk.game.BoardState;
+
+import java.util.Arrays;
+
+/**
+ * Finds the hidden cells of a board that can be proved safe or mined from what the player can see.
+ * <p>
+ * A call reads the revealed numbers and turns each one that touches hidden cells into a constraint: so
+ * many mines among these cells. The hidden cells touching a number (the frontier) are split into
+ * independent {@link Component components}, and each component is solved on its own: first the
+ * single-cell rule and the subset and pair rules until they stop finding anything, then a bounded
+ * enumeration of every consistent mine layout for the parts still undecided. If that proves nothing, the
+ * board's total mine count is tried as a last rule.
+ * <p>
+ * Each call has a time budget. When it runs out the result holds whatever was proved so far and is marked
+ * incomplete. Only revealed numbers are evidence: flags are ignored unless the caller vouches for them,
+ * since a player's flags may be wrong.
+ */
+public class Solver {
+
+    private final long budgetNanos;
+
+    /**
+     * @param budgetNanos the longest a single {@link #solve} call may take
+     */
+    public Solver(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Finds the cells the revealed numbers prove safe or mined.
+     *
+     * @param board      the board to read
+     * @param trustFlags whether flagged cells count as known mines
+     * @return the deductions; empty for a finished game
+     */
+    public SolverResult solve(Board board, boolean trustFlags) {
+        return solve(board, trustFlags, System.nanoTime() + budgetNanos);
+    }
+
+    SolverResult solve(Board board, boolean trustFlags, long deadline) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        SolverResult result = new SolverResult(cols);
+        if (board.getState() != BoardState.ONGOING) {
+            return result;
+        }
+
+        // the frontier: every hidden, unflagged cell next to a revealed number, sorted by board index
+        IntList frontier = new IntList();
+        int constraintCount = 0;
+        int knownMines = 0;
+        int hidden = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (!board.isRevealed(row, col)) {
+                    if (trustFlags && board.isFlagged(row, col)) {
+                        knownMines++;
+                    } else {
+                        hidden++;
+                    }
+                    continue;
+                }
+                if (board.getHint(row, col) == 0) {
+                    continue;
+                }
+                int before = frontier.size;
+                forEachNeighbour(rows, cols, row, col, (i, j) -> {
+                    if (!board.isRevealed(i, j) && !(trustFlags && board.isFlagged(i, j))) {
+                        frontier.add(i * cols + j);
+                    }
+                });
+                if (frontier.size > before) {
+                    constraintCount++;
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                result.markIncomplete();
+                return result;
+            }
+        }
+        int[] cells = frontier.sortedDistinct();
+
+        // one constraint per number, as positions in the frontier
+        int[][] constraints = new int[constraintCount][];
+        int[] need = new int[constraintCount];
+        int[] source = new int[constraintCount];
+        int n = 0;
+        IntList scratch = new IntList();
+        for (int row = 0; row < rows && n < constraintCount; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (!board.isRevealed(row, col) || board.getHint(row, col) == 0) {
+                    continue;
+                }
+                scratch.size = 0;
+                int[] flagged = new int[1];
+                forEachNeighbour(rows, cols, row, col, (i, j) -> {
+                    if (board.isRevealed(i, j)) {
+                        return;
+                    }
+                    if (trustFlags && board.isFlagged(i, j)) {
+                        flagged[0]++;
+                    } else {
+                        scratch.add(Arrays.binarySearch(cells, i * cols + j));
+                    }
+                });
+                if (scratch.size == 0) {
+                    continue;
+                }
+                constraints[n] = scratch.toArray();
+                need[n] = board.getHint(row, col) - flagged[0];
+                source[n] = row * cols + col;
+                n++;
+            }
+        }
+
+        solveComponents(cells, constraints, need, source, result, deadline);
+        if (result.isComplete() && result.getSafeCount() == 0) {
+            applyMineCount(board, trustFlags, knownMines, hidden, result);
+        }
+        return result;
+    }
+
+    /**
+     * Groups the frontier into components joined by shared constraints and solves each one.
+     */
+    private static void solveComponents(int[] cells, int[][] constraints, int[] need, int[] source,
+                                        SolverResult result, long deadline) {
+        int[] parent = new int[cells.length];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        for (int[] constraint : constraints) {
+            for (int k = 1; k < constraint.length; k++) {
+                union(parent, constraint[0], constraint[k]);
+            }
+        }
+
+        // number each component's cells and constraints locally
+        int[] componentOf = new int[cells.length];
+        int[] local = new int[cells.length];
+        int[] cellCount = new int[cells.length];
+        int components = 0;
+        int[] idOfRoot = new int[cells.length];
+        Arrays.fill(idOfRoot, -1);
+        for (int v = 0; v < cells.length; v++) {
+            int root = find(parent, v);
+            if (idOfRoot[root] < 0) {
+                idOfRoot[root] = components++;
+            }
+            componentOf[v] = idOfRoot[root];
+            local[v] = cellCount[componentOf[v]]++;
+        }
+        int[][] componentCells = new int[components][];
+        for (int id = 0; id < components; id++) {
+            componentCells[id] = new int[cellCount[id]];
+        }
+        for (int v = 0; v < cells.length; v++) {
+            componentCells[componentOf[v]][local[v]] = cells[v];
+        }
+        int[] constraintCount = new int[components];
+        for (int[] constraint : constraints) {
+            constraintCount[componentOf[constraint[0]]]++;
+        }
+        int[][][] componentConstraints = new int[components][][];
+        int[][] componentNeed = new int[components][];
+        int[][] componentSource = new int[components][];
+        for (int id = 0; id < components; id++) {
+            componentConstraints[id] = new int[constraintCount[id]][];
+            componentNeed[id] = new int[constraintCount[id]];
+            componentSource[id] = new int[constraintCount[id]];
+            constraintCount[id] = 0;
+        }
+        for (int c = 0; c < constraints.length; c++) {
+            int id = componentOf[constraints[c][0]];
+            int k = constraintCount[id]++;
+            int[] mapped = new int[constraints[c].length];
+            for (int i = 0; i < mapped.length; i++) {
+                mapped[i] = local[constraints[c][i]];
+            }
+            componentConstraints[id][k] = mapped;
+            componentNeed[id][k] = need[c];
+            componentSource[id][k] = source[c];
+        }
+
+        for (int id = 0; id < components; id++) {
+            Component component = new Component(componentCells[id], componentConstraints[id], componentNeed[id],
+                    componentSource[id]);
+            boolean progress = true;
+            while (progress) {
+                if (!component.propagate(result, deadline)) {
+                    result.markIncomplete();
+                    return;
+                }
+                progress = component.enumerate(result, deadline);
+                if (!result.isComplete()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Uses the board's mine count: if the mines already known account for all of them, every other hidden
+     * cell is safe; if every hidden cell is needed to make up the count, they are all mines.
+     */
+    private static void applyMineCount(Board board, boolean trustFlags, int knownMines, int hidden,
+                                       SolverResult result) {
+        int mines = knownMines;
+        int undecided = hidden;
+        for (Deduction deduction : result.getDeductions()) {
+            undecided--;
+            if (deduction.mine) {
+                mines++;
+            }
+        }
+        int remaining = board.getMineCount() - mines;
+        boolean allSafe = remaining == 0;
+        boolean allMines = remaining == undecided;
+        if (undecided == 0 || (!allSafe && !allMines)) {
+            return;
+        }
+
+        int rows = board.getRows();
+        int cols = board.getCols();
+        int[] decided = new int[result.getDeductions().size()];
+        int n = 0;
+        for (Deduction deduction : result.getDeductions()) {
+            decided[n++] = deduction.row * cols + deduction.col;
+        }
+        Arrays.sort(decided);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int index = row * cols + col;
+                if (!board.isRevealed(row, col) && !(trustFlags && board.isFlagged(row, col))
+                        && Arrays.binarySearch(decided, index) < 0) {
+                    result.add(index, allMines, Rule.MINE_COUNT, -1, -1);
+                }
+            }
+        }
+    }
+
+    private static void forEachNeighbour(int rows, int cols, int row, int col, CellVisitor visitor) {
+        int rowEnd = Math.min(row + 1, rows - 1);
+        int colEnd = Math.min(col + 1, cols - 1);
+        for (int i = Math.max(row - 1, 0); i <= rowEnd; i++) {
+            for (int j = Math.max(col - 1, 0); j <= colEnd; j++) {
+                if (i != row || j != col) {
+                    visitor.visit(i, j);
+                }
+            }
+        }
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+
+    @FunctionalInterface
+    private interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    /**
+     * A growable int array, to collect cells without boxing.
+     */
+    private static final class IntList {
+
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] sortedDistinct() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (n == 0 || sorted[i] != sorted[n - 1]) {
+                    sorted[n++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, n);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What one {@link Solver#solve} call proved about a board.
+ */
+public final class SolverResult {
+
+    private final List<Deduction> deductions = new ArrayList<>();
+    private final int cols;
+    private int safeCount;
+    private boolean complete = true;
+
+    SolverResult(int cols) {
+        this.cols = cols;
+    }
+
+    void add(int cell, boolean mine, Rule rule, int source, int other) {
+        deductions.add(new Deduction(cell, mine, rule, source, other, cols));
+        if (!mine) {
+            safeCount++;
+        }
+    }
+
+    void markIncomplete() {
+        complete = false;
+    }
+
+    /**
+     * Returns every deduction in the order it was found.
+     */
+    public List<Deduction> getDeductions() {
+        return Collections.unmodifiableList(deductions);
+    }
+
+    public int getSafeCount() {
+        return safeCount;
+    }
+
+    /**
+     * Returns false if the time budget ran out before every rule had been tried, in which case a cell the
+     * result does not mention may still be decidable.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the deduction most worth showing a player: a safe cell before a mine, and the simplest rule
+     * first.
+     *
+     * @return the deduction, or null if nothing could be proved
+     */
+    public Deduction getHint() {
+        Deduction best = null;
+        for (Deduction deduction : deductions) {
+            if (best == null || (best.mine && !deduction.mine)
+                    || (best.mine == deduction.mine && deduction.rule.ordinal() < best.rule.ordinal())) {
+                best = deduction;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,189 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+
+package com.chalwk.util;
+
+import com.chalwk.util.Logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The channels each guild allows the game to be played in.
+ * <p>
+ * Lookups only read an in-memory map of guild ID to an immutable set of channel IDs. Changes replace the
+ * guild's set and are written behind to a plain text file outside the JAR ({@code guildId:channelId} per
+ * line) on a background thread; several changes in quick succession are folded into one write, and the
+ * file is replaced by atomic rename.
+ */
+public class ChannelConfig {
+
+    /**
+     * Guild ID under which channel IDs migrated from the legacy {@code config.txt} are kept. Those carry no
+     * guild, so they are accepted in every guild.
+     */
+    private static final long ANY_GUILD = 0;
+
+    private static final ChannelConfig INSTANCE = new ChannelConfig(Paths.get(settings.getChannelConfigFile()));
+
+    private final Path file;
+    private final Map<Long, Set<Long>> channels = new ConcurrentHashMap<>();
+    private final AtomicBoolean writeQueued = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "minesweeper-config-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ChannelConfig(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the channel configuration shared by the bot.
+     */
+    public static ChannelConfig getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the configuration file, falling back to the legacy {@code config.txt} if it does not exist yet.
+     * Called once at startup, before any events are handled.
+     */
+    public void load() {
+        try {
+            List<String> lines = fileIO.readLines(file);
+            if (lines.isEmpty()) {
+                for (String channelID : fileIO.readLegacyChannelIDs()) {
+                    addToMemory(ANY_GUILD, Long.parseLong(channelID));
+                }
+                return;
+            }
+            for (String line : lines) {
+                int separator = line.indexOf(':');
+                addToMemory(Long.parseLong(line.substring(0, separator)), Long.parseLong(line.substring(separator + 1)));
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.warning("Failed to load channel config " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the channels the game may be played in for a guild.
+     *
+     * @param guildID the guild to look up
+     * @return the channel IDs, empty if the game is not set up in that guild
+     */
+    public Set<Long> getChannels(long guildID) {
+        Set<Long> configured = channels.getOrDefault(guildID, Set.of());
+        Set<Long> legacy = channels.get(ANY_GUILD);
+        if (legacy == null) {
+            return configured;
+        }
+        Set<Long> merged = new HashSet<>(configured);
+        merged.addAll(legacy);
+        return merged;
+    }
+
+    public boolean isConfigured(long guildID, long channelID) {
+        Set<Long> configured = channels.get(guildID);
+        if (configured != null && configured.contains(channelID)) {
+            return true;
+        }
+        Set<Long> legacy = channels.get(ANY_GUILD);
+        return legacy != null && legacy.contains(channelID);
+    }
+
+    /**
+     * Adds a channel for a guild and schedules a write.
+     *
+     * @return true if the channel was not configured before
+     */
+    public boolean add(long guildID, long channelID) {
+        if (!addToMemory(guildID, channelID)) {
+            return false;
+        }
+        scheduleWrite();
+        return true;
+    }
+
+    /**
+     * Removes a channel from a guild and schedules a write.
+     *
+     * @return true if the channel was configured before
+     */
+    public boolean remove(long guildID, long channelID) {
+        boolean[] removed = new boolean[1];
+        for (long guild : new long[]{guildID, ANY_GUILD}) {
+            channels.computeIfPresent(guild, (key, current) -> {
+                if (!current.contains(channelID)) {
+                    return current;
+                }
+                removed[0] = true;
+                Set<Long> updated = new HashSet<>(current);
+                updated.remove(channelID);
+                return updated.isEmpty() ? null : Set.copyOf(updated);
+            });
+        }
+        if (removed[0]) {
+            scheduleWrite();
+        }
+        return removed[0];
+    }
+
+    private boolean addToMemory(long guildID, long channelID) {
+        boolean[] added = new boolean[1];
+        channels.compute(guildID, (key, current) -> {
+            if (current != null && current.contains(channelID)) {
+                return current;
+            }
+            added[0] = true;
+            Set<Long> updated = current == null ? new HashSet<>() : new HashSet<>(current);
+            updated.add(channelID);
+            return Set.copyOf(updated);
+        });
+        return added[0];
+    }
+
+    private void scheduleWrite() {
+        if (writeQueued.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes any change still waiting for the writer thread. Called on shutdown.
+     */
+    public void flushPending() {
+        if (writeQueued.get()) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the current configuration to disk now. Runs on the writer thread after changes.
+     */
+    public synchronized void flush() {
+        writeQueued.set(false);
+        StringBuilder sb = new StringBuilder();
+        channels.forEach((guild, ids) -> {
+            for (long id : ids) {
+                sb.append(guild).append(':').append(id).append('\n');
+            }
+        });
+        try {
+            fileIO.writeAtomically(file, sb.toString());
+        } catch (IOException e) {
+            Logger.warning("Failed to save channel config " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -3,24 +3,89 @@
 
 package com.chalwk.util;
 
-import net.dv8tion.jda.api.entities.User;
+import com.chalwk.game.Board;
+import com.chalwk.game.Difficulty;
+import net.dv8tion.jda.api.entities.UserSnowflake;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 
 public class GameConfig {
 
     public final int rows;
     public final int cols;
-    public final User player;
-    public final int MIN_ROWS = 5;
-    public final int MAX_ROWS = 10;
+    public final int mines;
+    /**
+     * The preset the mine count came from, or null for a custom mine count.
+     */
+    public final Difficulty difficulty;
+    /**
+     * Whether the board is shown as a classic spoiler board, with every hidden cell behind a spoiler tag.
+     */
+    public final boolean classic;
+    /**
+     * Whether the board should be one that can be cleared without guessing from its opening cell.
+     */
+    public final boolean noGuess;
+    public final UserSnowflake player;
+    public final int MIN_SIZE = settings.getMinBoardSize();
+    public final int MAX_ROWS = settings.getMaxRows();
+    public final int MAX_COLS = settings.getMaxCols();
+    public final int MAX_CELLS = settings.getMaxCells();
 
-    public GameConfig(User player, SlashCommandInteractionEvent event) {
+    /**
+     * Reads the board size from the {@code rows} and {@code cols} options, the mine count from the
+     * {@code mines} option if given, otherwise from the {@code difficulty} preset (medium by default), and
+     * the {@code classic} and {@code no_guess} options.
+     */
+    public GameConfig(UserSnowflake player, SlashCommandInteractionEvent event) {
         this.player = player;
         this.rows = event.getOption("rows").getAsInt();
         this.cols = event.getOption("cols").getAsInt();
+        OptionMapping classic = event.getOption("classic");
+        this.classic = classic != null && classic.getAsBoolean();
+        OptionMapping noGuess = event.getOption("no_guess");
+        this.noGuess = noGuess != null && noGuess.getAsBoolean();
+
+        OptionMapping mines = event.getOption("mines");
+        OptionMapping difficulty = event.getOption("difficulty");
+        if (mines != null) {
+            this.difficulty = null;
+            this.mines = mines.getAsInt();
+        } else {
+            Difficulty preset = difficulty == null ? null : Difficulty.fromName(difficulty.getAsString());
+            this.difficulty = preset == null ? Difficulty.MEDIUM : preset;
+            this.mines = this.difficulty.minesFor(rows, cols);
+        }
+    }
+
+    public GameConfig(UserSnowflake player, int rows, int cols, int mines) {
+        this(player, rows, cols, mines, false, false);
+    }
+
+    public GameConfig(UserSnowflake player, int rows, int cols, int mines, boolean classic, boolean noGuess) {
+        this.player = player;
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.difficulty = null;
+        this.classic = classic;
+        this.noGuess = noGuess;
+    }
+
+    public boolean isValidSize() {
+        return rows >= MIN_SIZE && cols >= MIN_SIZE
+                && rows <= MAX_ROWS && cols <= MAX_COLS
+                && (long) rows * cols <= MAX_CELLS;
+    }
+
+    /**
+     * Returns the largest mine count that still leaves room for the safe first click.
+     */
+    public int getMaxMines() {
+        return rows * cols - Board.SAFE_AREA;
     }
 
-    public boolean isValidSquare() {
-        return rows == cols && rows >= MIN_ROWS && rows <= MAX_ROWS;
+    public boolean isValidMineCount() {
+        return mines >= 1 && mines <= getMaxMines();
     }
 }
@@ -3,93 +3,86 @@
 
 package com.chalwk.util;
 
-import com.chalwk.game.GameManager;
 import com.chalwk.util.Logging.Logger;
-import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 
 public class fileIO {
 
-    private static final String configFile = "/config.txt";
+    private static final String legacyConfigFile = "/config.txt";
 
     /**
-     * Loads the channel ID from the config file.
+     * Reads the non-blank, trimmed lines of a file.
      *
-     * @return the channel ID as a String
+     * @param path the file to read
+     * @return the lines, or an empty list if the file does not exist
+     * @throws IOException if the file exists but cannot be read
      */
-    public static String loadChannelID() {
-        try (Stream<String> lines = Files.lines(Paths.get(fileIO.class.getResource(configFile).toURI()))) {
-            return lines.filter(line -> !line.trim().isEmpty())
-                    .findFirst()
-                    .map(String::trim)
-                    .orElse("");
-        } catch (IOException | URISyntaxException e) {
-            Logger.info("Failed to load Channel ID " + e.getMessage());
-            return null;
+    public static List<String> readLines(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return List.of();
         }
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                lines.add(line.trim());
+            }
+        }
+        return lines;
     }
 
     /**
-     * Saves the channel ID to the config file.
+     * Reads the channel IDs from the legacy {@code config.txt} bundled in the JAR. Older versions wrote the
+     * configured channel there; it is only read now, to migrate it.
      *
-     * @param channelID      the channel ID to save
-     * @param isAddOperation true if the operation is to add the channel ID, false if it is to remove it
-     * @param event          the event that triggered the save operation
-     * @param gameManager    the game manager to update
+     * @return the channel IDs found, or an empty list
      */
-    public static void saveChannelID(String channelID, boolean isAddOperation, SlashCommandInteractionEvent event, GameManager gameManager) {
-        try {
-            URI fileUri = fileIO.class.getResource(configFile).toURI();
-            Path filePath = Paths.get(fileUri);
-            List<String> lines = Files.readAllLines(filePath);
-
-            if (isAddOperation) {
-                lines.add(channelID);
-                event.reply("## Channel ID saved!").setEphemeral(true).queue();
-                gameManager.setChannelID(channelID);
-            } else {
-                lines.removeIf(line -> line.trim().equals(channelID));
-                event.reply("## Channel ID removed!").setEphemeral(true).queue();
-                gameManager.setChannelID("");
+    public static List<String> readLegacyChannelIDs() {
+        InputStream stream = fileIO.class.getResourceAsStream(legacyConfigFile);
+        if (stream == null) {
+            return List.of();
+        }
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines.add(line.trim());
+                }
             }
-
-            Files.writeString(filePath, String.join("\n", lines));
-        } catch (URISyntaxException e) {
-            Logger.info("Failed to parse file URI: " + e.getMessage());
-            event.reply("## Failed to read data from the config file!").setEphemeral(true).queue();
         } catch (IOException e) {
-            Logger.info("Failed to read data: " + e.getMessage());
-            event.reply("## Failed to save channel ID!").setEphemeral(true).queue();
+            Logger.info("Failed to read legacy config: " + e.getMessage());
         }
+        return lines;
     }
 
     /**
-     * Checks if the channel ID is configured in the config file.
+     * Replaces a file's contents atomically: the data is written to a temporary file in the same directory
+     * and then renamed over the target, so readers never see a half-written file.
      *
-     * @param channelID the channel ID to check
-     * @return true if the channel ID is configured, false otherwise
+     * @param path    the file to replace
+     * @param content the new contents
+     * @throws IOException if the file cannot be written
      */
-    public static boolean isChannelIdConfigured(String channelID) {
-
-        if (channelID == null) {
-            return false;
-        } else if (!GameManager.getChannelID().isEmpty()) {
-            return true;
-        }
-
-        try (Stream<String> lines = Files.lines(Paths.get(fileIO.class.getResource(configFile).toURI()))) {
-            return lines.anyMatch(line -> line.trim().equals(channelID));
-        } catch (IOException | URISyntaxException e) {
-            Logger.info("Failed to read data: " + e.getMessage());
-            return false;
+    public static void writeAtomically(Path path, String content) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
 }
@@ -3,39 +3,183 @@
 
 package com.chalwk.util;
 
-import com.chalwk.game.GameManager;
-import net.dv8tion.jda.api.entities.channel.Channel;
+import com.chalwk.CommandManager.CommandRegistrar;
+import com.chalwk.util.Logging.Logger;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 
+import java.util.Locale;
+import java.util.Set;
+
 public class settings {
 
     public static final int DEFAULT_TIME_LIMIT = 300;
 
+    /**
+     * Board size limits. Each can be overridden at launch with a system property, e.g.
+     * {@code -Dminesweeper.maxRows=1000}, without rebuilding the bot.
+     */
+    public static final int MIN_BOARD_SIZE = Integer.getInteger("minesweeper.minBoardSize", 5);
+    public static final int MAX_ROWS = Integer.getInteger("minesweeper.maxRows", 10);
+    public static final int MAX_COLS = Integer.getInteger("minesweeper.maxCols", 10);
+    public static final int MAX_CELLS = Integer.getInteger("minesweeper.maxCells", 4_000_000);
+
+    /**
+     * Where slash commands are registered: {@code guild} (default) or {@code global}.
+     * Override with {@code -Dminesweeper.commandScope=global}; an unknown value falls back to {@code guild}.
+     */
+    public static final CommandRegistrar.Scope COMMAND_SCOPE = parseCommandScope(System.getProperty("minesweeper.commandScope"));
+
+    /**
+     * File, outside the JAR, that holds the channels each guild allows the game in.
+     * Override with {@code -Dminesweeper.channelConfig=/path/to/channels.txt}.
+     */
+    public static final String CHANNEL_CONFIG_FILE = System.getProperty("minesweeper.channelConfig", "channels.txt");
+
+    /**
+     * Binary snapshot of running games, written every {@code SNAPSHOT_INTERVAL} seconds and on shutdown
+     * and read back at startup. Override with {@code -Dminesweeper.snapshotFile} and
+     * {@code -Dminesweeper.snapshotInterval}.
+     */
+    public static final String SNAPSHOT_FILE = System.getProperty("minesweeper.snapshotFile", "games.bin");
+    public static final int SNAPSHOT_INTERVAL = Integer.getInteger("minesweeper.snapshotInterval", 30);
+
+    /**
+     * Directory of the append-only move journal and the size of each of its segment files. Override with
+     * {@code -Dminesweeper.journalDir} and {@code -Dminesweeper.journalSegmentBytes}.
+     */
+    public static final String JOURNAL_DIR = System.getProperty("minesweeper.journalDir", "journal");
+    public static final int JOURNAL_SEGMENT_BYTES = Integer.getInteger("minesweeper.journalSegmentBytes", 16 << 20);
+
+    /**
+     * No-guess boards kept ready per board configuration for {@code /start}, the largest board (in cells)
+     * that is pooled, and how many configurations get a pool. Override with {@code -Dminesweeper.poolSize},
+     * {@code -Dminesweeper.poolMaxCells} and {@code -Dminesweeper.poolMaxConfigs}; a pool size of 0
+     * disables pooling.
+     */
+    public static final int POOL_SIZE = Integer.getInteger("minesweeper.poolSize", 2);
+    public static final int POOL_MAX_CELLS = Integer.getInteger("minesweeper.poolMaxCells", 10_000);
+    public static final int POOL_MAX_CONFIGS = Integer.getInteger("minesweeper.poolMaxConfigs", 16);
+    /**
+     * The most cells one {@code /reveal} may name, as a list or a rectangle. Override with
+     * {@code -Dminesweeper.maxBatchCells}.
+     */
+    public static final int MAX_BATCH_CELLS = Integer.getInteger("minesweeper.maxBatchCells", 100);
+    /**
+     * How long {@code /hint} may spend solving, and how long {@code /start} may search for a board that needs
+     * no guessing, in milliseconds. Override with {@code -Dminesweeper.hintBudgetMillis} and
+     * {@code -Dminesweeper.noGuessBudgetMillis}.
+     */
+    public static final int HINT_BUDGET_MILLIS = Integer.getInteger("minesweeper.hintBudgetMillis", 250);
+    public static final int NO_GUESS_BUDGET_MILLIS = Integer.getInteger("minesweeper.noGuessBudgetMillis", 1000);
+
     public static int getDefaultTimeLimit() {
         return DEFAULT_TIME_LIMIT;
     }
 
+    public static int getMinBoardSize() {
+        return MIN_BOARD_SIZE;
+    }
+
+    public static int getMaxRows() {
+        return MAX_ROWS;
+    }
+
+    public static int getMaxCols() {
+        return MAX_COLS;
+    }
+
+    public static int getMaxCells() {
+        return MAX_CELLS;
+    }
+
+    public static String getChannelConfigFile() {
+        return CHANNEL_CONFIG_FILE;
+    }
+
+    public static String getSnapshotFile() {
+        return SNAPSHOT_FILE;
+    }
+
+    public static int getSnapshotInterval() {
+        return SNAPSHOT_INTERVAL;
+    }
+
+    public static String getJournalDirectory() {
+        return JOURNAL_DIR;
+    }
+
+    public static int getJournalSegmentBytes() {
+        return JOURNAL_SEGMENT_BYTES;
+    }
+
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
+    public static int getPoolMaxCells() {
+        return POOL_MAX_CELLS;
+    }
+
+    public static int getPoolMaxConfigs() {
+        return POOL_MAX_CONFIGS;
+    }
+
+    public static int getMaxBatchCells() {
+        return MAX_BATCH_CELLS;
+    }
+
+    public static int getHintBudgetMillis() {
+        return HINT_BUDGET_MILLIS;
+    }
+
+    public static int getNoGuessBudgetMillis() {
+        return NO_GUESS_BUDGET_MILLIS;
+    }
+
+    public static CommandRegistrar.Scope getCommandScope() {
+        return COMMAND_SCOPE;
+    }
+
+    private static CommandRegistrar.Scope parseCommandScope(String value) {
+        if (value == null) {
+            return CommandRegistrar.Scope.GUILD;
+        }
+        try {
+            return CommandRegistrar.Scope.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Logger.warning("Unknown minesweeper.commandScope '" + value + "'; using guild");
+            return CommandRegistrar.Scope.GUILD;
+        }
+    }
+
     public static boolean notCorrectChannel(SlashCommandInteractionEvent event) {
-        String thisChannel = event.getChannel().getId();
-        String requiredChannel = GameManager.getChannelID();
+        if (event.getGuild() == null) {
+            event.reply("This game only works in a server.").setEphemeral(true).queue();
+            return true;
+        }
 
-        if (requiredChannel.isEmpty()) {
+        long guildID = event.getGuild().getIdLong();
+        long thisChannel = event.getChannel().getIdLong();
+        ChannelConfig config = ChannelConfig.getInstance();
+
+        if (config.isConfigured(guildID, thisChannel)) {
+            return false;
+        }
+
+        Set<Long> allowed = config.getChannels(guildID);
+        if (allowed.isEmpty()) {
             event.reply("""
                     # Game is not set up.
                     Please set the channel for the game to use first.
-                    Ask an admin to use the `/setchannel` command.
+                    Ask an admin to use the `/channel` command.
                     """).setEphemeral(true).queue();
-            return true;
-        } else if (!thisChannel.equals(requiredChannel)) {
-            Channel channel = event.getGuild().getTextChannelById(requiredChannel);
-
-            if (channel != null) {
-                event.reply("This game only works in " + channel).setEphemeral(true).queue();
-            } else {
-                event.reply("The required channel is not available").setEphemeral(true).queue();
+        } else {
+            StringBuilder mentions = new StringBuilder();
+            for (long channelID : allowed) {
+                mentions.append(mentions.length() == 0 ? "" : ", ").append("<#").append(channelID).append('>');
             }
-            return true;
+            event.reply("This game only works in " + mentions).setEphemeral(true).queue();
         }
-        return false;
+        return true;
     }
 }
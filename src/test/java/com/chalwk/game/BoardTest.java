@@ -0,0 +1,108 @@
+/* Copyright (c) 2024 Jericho Crosby <jericho.crosby227@gmail.com>. Licensed under GNU General Public License v3.0.
+   See the LICENSE file or visit https://www.gnu.org/licenses/gpl-3.0.en.html for details. */
+package com.chalwk.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardTest {
+
+    private static final int SIZE = 16;
+
+    /**
+     * Finds a board with a zero cell whose flood fill opens a number that has more safe hidden neighbours
+     * than its hint, so flagging the wrong ones makes a chord on it open a mine.
+     *
+     * @return {seed, zero cell, number cell}, as cell indexes
+     */
+    private static long[] findFloodIntoNumber() {
+        for (long seed = 0; seed < 10_000; seed++) {
+            Board probe = Board.generate(SIZE, SIZE, seed, -1, -1);
+            for (int zero = 0; zero < SIZE * SIZE; zero++) {
+                int row = zero / SIZE;
+                int col = zero % SIZE;
+                if (probe.isMine(row, col) || probe.getHint(row, col) != 0) {
+                    continue;
+                }
+                probe.revealCell(row, col);
+                for (int number = 0; number < SIZE * SIZE; number++) {
+                    int r = number / SIZE;
+                    int c = number % SIZE;
+                    if (probe.isRevealed(r, c) && probe.getHint(r, c) > 0
+                            && safeHiddenNeighbours(probe, r, c).size() >= probe.getHint(r, c)) {
+                        return new long[]{seed, zero, number};
+                    }
+                }
+                break;
+            }
+        }
+        throw new AssertionError("No board with a flood fill reaching a chordable number");
+    }
+
+    private static List<Integer> safeHiddenNeighbours(Board board, int row, int col) {
+        List<Integer> cells = new ArrayList<>();
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, SIZE - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, SIZE - 1); j++) {
+                if (!board.isRevealed(i, j) && !board.isMine(i, j)) {
+                    cells.add(i * SIZE + j);
+                }
+            }
+        }
+        return cells;
+    }
+
+    @Test
+    void batchDoesNotChordNumberOpenedByEarlierEntry() {
+        long[] found = findFloodIntoNumber();
+        long seed = found[0];
+        int zero = (int) found[1];
+        int number = (int) found[2];
+
+        Board probe = Board.generate(SIZE, SIZE, seed, -1, -1);
+        int floodRevealed = probe.revealCells(new int[]{zero}, 1);
+        List<Integer> misflag = safeHiddenNeighbours(probe, number / SIZE, number % SIZE)
+                .subList(0, probe.getHint(number / SIZE, number % SIZE));
+
+        // the number's flags are all on safe cells, so chording it would open a mine
+        Board board = Board.generate(SIZE, SIZE, seed, -1, -1);
+        for (int cell : misflag) {
+            board.flagCell(cell / SIZE, cell % SIZE, true);
+        }
+        int revealed = board.revealCells(new int[]{zero, number}, 2);
+
+        assertEquals(BoardState.ONGOING, board.getState());
+        assertTrue(board.isRevealed(number / SIZE, number % SIZE));
+        assertEquals(floodRevealed, revealed);
+    }
+
+    @Test
+    void batchChordsNumberRevealedBeforeIt() {
+        long[] found = findFloodIntoNumber();
+        long seed = found[0];
+        int zero = (int) found[1];
+        int number = (int) found[2];
+        int row = number / SIZE;
+        int col = number % SIZE;
+
+        Board board = Board.generate(SIZE, SIZE, seed, -1, -1);
+        board.revealCell(zero / SIZE, zero % SIZE);
+        List<Integer> safe = safeHiddenNeighbours(board, row, col);
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, SIZE - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, SIZE - 1); j++) {
+                if (board.isMine(i, j)) {
+                    board.flagCell(i, j, true);
+                }
+            }
+        }
+        board.revealCells(new int[]{number}, 1);
+
+        assertNotEquals(BoardState.LOST, board.getState());
+        for (int cell : safe) {
+            assertTrue(board.isRevealed(cell / SIZE, cell % SIZE));
+        }
+    }
+}